@@ -0,0 +1,47 @@
+package com.pennypop.project.bench;
+
+/**
+ * This is the base class for the benchmarks run by BenchmarkRunner. A benchmark does a fixed
+ * batch of work in run() and says how many units (moves, checks, nodes...) the batch was, so
+ * the runner can report units per second.
+ *
+ * run() should return the units it did and put a result that depends on all of its work in
+ * sink, otherwise the JIT compiler may notice that nothing uses the work and skip it.
+ *
+ * @see BenchmarkRunner
+ */
+public abstract class Benchmark {
+	private final String name;
+	private final String unit;
+	/** results of the work, read by the runner so it can't be optimized away **/
+	protected long sink;
+
+	/**
+	 * @param name (String) the name shown in the report
+	 * @param unit (String) what run() counts, e.g. "moves" or "nodes"
+	 */
+	protected Benchmark(String name, String unit){
+		this.name = name;
+		this.unit = unit;
+	}
+
+	public String getName(){
+		return name;
+	}
+
+	public String getUnit(){
+		return unit;
+	}
+
+	public long getSink(){
+		return sink;
+	}
+
+	/**
+	 * run does one batch of the benchmarked work. It's called over and over until the
+	 * iteration time is used up, so a batch should take well under a millisecond to a few
+	 * milliseconds.
+	 * @return (long) the number of units done
+	 */
+	public abstract long run();
+}
@@ -0,0 +1,118 @@
+package com.pennypop.project.bench;
+
+import java.util.List;
+
+/**
+ * This class runs the engine benchmarks and prints a report. It needs no libGDX window, so it
+ * can run on a build machine to compare releases:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.BenchmarkRunner [-wi warmups] [-i iterations] [-t ms] [filter]
+ *
+ * Every benchmark runs a few warmup iterations so the JIT compiler is done, then the measured
+ * iterations. An iteration calls the benchmark over and over for the iteration time. The score
+ * is the mean units per second over the measured iterations, and the error is the half-width
+ * of its 99% confidence interval. Only benchmarks whose name contains the filter are run.
+ *
+ * @see EngineBenchmarks
+ */
+public class BenchmarkRunner {
+	/** the board sizes benchmarked, as {rows, columns, win size, search depth} **/
+	private static final int[][] SIZES = {{6, 7, 4, 9}, {7, 9, 5, 7}, {15, 15, 5, 4}};
+	/** two-sided 99% Student t values for 1 to 10 degrees of freedom, and the normal value after that **/
+	private static final double[] T_99 = {63.657, 9.925, 5.841, 4.604, 4.032, 3.707, 3.499, 3.355, 3.250, 3.169};
+	private static final double Z_99 = 2.576;
+
+	private int warmups = 3;
+	private int iterations = 5;
+	private long iterationMillis = 1000;
+	private String filter = "";
+	/** results of every benchmark, printed at the end so the JIT can't drop their work **/
+	private long sink;
+
+	public static void main(String[] args){
+		BenchmarkRunner runner = new BenchmarkRunner();
+		for (int i = 0; i < args.length; ++i){
+			if (args[i].equals("-wi"))
+				runner.warmups = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-i"))
+				runner.iterations = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-t"))
+				runner.iterationMillis = Long.parseLong(args[++i]);
+			else
+				runner.filter = args[i];
+		}
+		runner.runAll();
+	}
+
+	/** Runs the benchmarks of every board size and prints one line per benchmark **/
+	private void runAll(){
+		System.out.println("java " + System.getProperty("java.version") + ", " + warmups + " warmups, "
+				+ iterations + " iterations of " + iterationMillis + " ms");
+		System.out.println(String.format("%-16s %-8s %16s %14s  %s", "Benchmark", "Board", "Score", "Error", "Units"));
+
+		for (int[] size : SIZES){
+			String board = size[1] + "x" + size[0] + "/" + size[2];
+			List<Benchmark> benchmarks = EngineBenchmarks.create(size[0], size[1], size[2], size[3]);
+			for (Benchmark benchmark : benchmarks){
+				if (!benchmark.getName().contains(filter))
+					continue;
+				double[] scores = measure(benchmark);
+				System.out.println(String.format("%-16s %-8s %16.1f %14.1f  %s/s", benchmark.getName(), board,
+						mean(scores), error(scores), benchmark.getUnit()));
+				sink += benchmark.getSink();
+			}
+		}
+		System.out.println("(" + sink + ")");
+	}
+
+	/**
+	 * This method runs the warmup and measured iterations of a benchmark.
+	 * @param benchmark (Benchmark) the benchmark
+	 * @return (double[]) the units per second of each measured iteration
+	 */
+	private double[] measure(Benchmark benchmark){
+		for (int i = 0; i < warmups; ++i){
+			iteration(benchmark);
+		}
+		double[] scores = new double[iterations];
+		for (int i = 0; i < iterations; ++i){
+			scores[i] = iteration(benchmark);
+		}
+		return scores;
+	}
+
+	/** @return (double) the units per second of one iteration of the benchmark **/
+	private double iteration(Benchmark benchmark){
+		long units = 0;
+		long start = System.nanoTime();
+		long end = start + iterationMillis * 1000000L;
+		long now;
+		do {
+			units += benchmark.run();
+			now = System.nanoTime();
+		} while (now < end);
+		return units / ((now - start) / 1e9);
+	}
+
+	private static double mean(double[] values){
+		double sum = 0;
+		for (double value : values){
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	/** @return (double) the half-width of the 99% confidence interval of the mean, 0 for one value **/
+	private static double error(double[] values){
+		int n = values.length;
+		if (n < 2)
+			return 0;
+		double mean = mean(values);
+		double squares = 0;
+		for (double value : values){
+			squares += (value - mean) * (value - mean);
+		}
+		double deviation = Math.sqrt(squares / (n - 1));
+		double t = n - 1 <= T_99.length ? T_99[n - 2] : Z_99;
+		return t * deviation / Math.sqrt(n);
+	}
+}
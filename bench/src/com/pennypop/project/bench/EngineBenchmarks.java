@@ -0,0 +1,134 @@
+package com.pennypop.project.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pennypop.project.SettingsScreen;
+import com.pennypop.project.AI.AlphaBetaAI;
+import com.pennypop.project.AI.Board;
+import com.pennypop.project.AI.Evaluator;
+
+/**
+ * The benchmarks of the game engine and the AI, for one board size:
+ * <ul>
+ * <li>makeUnmake: Board.play and Board.undo, which also keep the winner and hash up to date</li>
+ * <li>winCheck: Board.hasWon for both players, the full-board check (what GameScreen.foundConsec used to do)</li>
+ * <li>evalReset: Evaluator.reset, evaluating a position from scratch</li>
+ * <li>evalUpdate: Evaluator.play/unplay and evaluate, what AlphaBetaAI.evalfunc costs during a search</li>
+ * <li>search: AlphaBetaAI searching a position to a fixed depth on one thread, in nodes</li>
+ * </ul>
+ *
+ * @see BenchmarkRunner
+ */
+public class EngineBenchmarks {
+	/** positions in the corpus of every board size **/
+	private static final int CORPUS_SIZE = 32;
+	/** moves played (and unplayed) from each position by makeUnmake **/
+	private static final int LINE_LENGTH = 8;
+
+	/**
+	 * This method creates the benchmarks of one board size. It sets the SettingsScreen size too,
+	 * since the AI reads the board size from there.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param searchDepth (int) the depth of the search benchmark
+	 * @return (List) the benchmarks
+	 */
+	public static List<Benchmark> create(final int rows, final int columns, final int winSize, final int searchDepth){
+		SettingsScreen.rows = rows;
+		SettingsScreen.columns = columns;
+		SettingsScreen.win_size = winSize;
+
+		final PositionCorpus corpus = new PositionCorpus(rows, columns, winSize, CORPUS_SIZE);
+		final Board[] boards = new Board[corpus.size()];
+		for (int i = 0; i < boards.length; ++i){
+			boards[i] = corpus.get(i);
+		}
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		benchmarks.add(new Benchmark("makeUnmake", "moves"){
+			public long run(){
+				long moves = 0;
+				for (int i = 0; i < boards.length; ++i){
+					Board board = boards[i];
+					int played = 0;
+					for (int k = 0; k < LINE_LENGTH; ++k){
+						int col = (i + k * 3) % columns;
+						if (board.canPlay(col)){
+							board.play(col);
+							played++;
+						}
+					}
+					sink += board.getHash() + board.getWinner();
+					for (int k = 0; k < played; ++k){
+						board.undo();
+					}
+					moves += played;
+				}
+				return moves;
+			}
+		});
+
+		benchmarks.add(new Benchmark("winCheck", "checks"){
+			public long run(){
+				for (int i = 0; i < boards.length; ++i){
+					if (boards[i].hasWon(Board.RED))
+						sink++;
+					if (boards[i].hasWon(Board.YELLOW))
+						sink++;
+				}
+				return boards.length * 2;
+			}
+		});
+
+		final Evaluator evaluator = new Evaluator(rows, columns, winSize);
+		benchmarks.add(new Benchmark("evalReset", "positions"){
+			public long run(){
+				for (int i = 0; i < boards.length; ++i){
+					evaluator.reset(boards[i]);
+					sink += evaluator.evaluate();
+				}
+				return boards.length;
+			}
+		});
+
+		benchmarks.add(new Benchmark("evalUpdate", "updates"){
+			public long run(){
+				long updates = 0;
+				for (int i = 0; i < boards.length; ++i){
+					Board board = boards[i];
+					evaluator.reset(board);
+					int player = board.getCurrentPlayer();
+					// every move of the position, like the leaves of a search
+					for (int col = 0; col < columns; ++col){
+						if (!board.canPlay(col))
+							continue;
+						int row = board.getHeight(col);
+						evaluator.play(row, col, player);
+						sink += evaluator.evaluate();
+						evaluator.unplay(row, col, player);
+						updates++;
+					}
+				}
+				return updates;
+			}
+		});
+
+		benchmarks.add(new Benchmark("search(d=" + searchDepth + ")", "nodes"){
+			private int next;
+
+			public long run(){
+				// a new AI every time so the transposition table starts empty, like a new game
+				AlphaBetaAI ai = new AlphaBetaAI(null);
+				ai.setDepthLimit(searchDepth);
+				sink += ai.chooseMove(corpus.get(next));
+				next = (next + 1) % corpus.size();
+				ai.dispose();
+				return ai.getNodes();
+			}
+		});
+
+		return benchmarks;
+	}
+}
@@ -0,0 +1,102 @@
+package com.pennypop.project.bench;
+
+import com.pennypop.project.AI.AIModule;
+import com.pennypop.project.AI.AlphaBetaAI;
+import com.pennypop.project.AI.GameRecord;
+import com.pennypop.project.AI.SolverAI;
+
+/**
+ * An engine of a SelfPlayTournament and its budget, written as type[:option=value,...]:
+ * <ul>
+ * <li>alphabeta: the AlphaBetaAI. Options: time (average milliseconds per move), nodes (nodes
+ * per move), depth (fixed depth) and threads (search threads, 1 by default).</li>
+ * <li>solver: the SolverAI. Option: time (milliseconds per move before it falls back on the
+ * AlphaBetaAI, 0 to always finish the proof).</li>
+ * </ul>
+ * e.g. "alphabeta:nodes=200000" or "alphabeta:time=100,threads=2". Without a budget the
+ * AlphaBetaAI uses its normal time limit.
+ */
+public class EngineSpec {
+	public static final String ALPHA_BETA = "alphabeta", SOLVER = "solver";
+
+	private final String text;
+	private final String type;
+	private long time, nodes;
+	private int depth;
+	private int threads = 1;
+
+	/**
+	 * The constructor parses the spec.
+	 * @param text (String) the spec, e.g. "alphabeta:time=100"
+	 * @throws IllegalArgumentException if the type or an option is unknown or a value isn't a number
+	 */
+	public EngineSpec(String text){
+		this.text = text;
+		int colon = text.indexOf(':');
+		type = colon == -1 ? text : text.substring(0, colon);
+		if (!type.equals(ALPHA_BETA) && !type.equals(SOLVER))
+			throw new IllegalArgumentException("unknown engine " + type);
+		if (colon == -1)
+			return;
+
+		for (String option : text.substring(colon + 1).split(",")){
+			int equals = option.indexOf('=');
+			if (equals == -1)
+				throw new IllegalArgumentException("option " + option + " has no value");
+			String key = option.substring(0, equals);
+			long value;
+			try {
+				value = Long.parseLong(option.substring(equals + 1));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("option " + option + " isn't a number");
+			}
+
+			if (key.equals("time"))
+				time = value;
+			else if (key.equals("nodes") && type.equals(ALPHA_BETA))
+				nodes = value;
+			else if (key.equals("depth") && type.equals(ALPHA_BETA))
+				depth = (int) value;
+			else if (key.equals("threads") && type.equals(ALPHA_BETA))
+				threads = (int) value;
+			else
+				throw new IllegalArgumentException("unknown option " + key + " for " + type);
+		}
+	}
+
+	/**
+	 * create makes a new engine with this spec's budget. The board size is read from the
+	 * SettingsScreen, so it has to be set first.
+	 * @return (AIModule) the engine, to be disposed after the game
+	 */
+	public AIModule create(){
+		if (type.equals(SOLVER)){
+			SolverAI solver = new SolverAI(null);
+			solver.setTimeLimit(time);
+			return solver;
+		}
+
+		AlphaBetaAI ai = new AlphaBetaAI(null);
+		ai.setThreads(threads);
+		if (time != 0)
+			ai.setTimeLimit(time);
+		ai.setNodeLimit(nodes);
+		ai.setDepthLimit(depth);
+		return ai;
+	}
+
+	/** @return (int) the player of this engine in a game record, e.g. GameRecord.SOLVER **/
+	public int getPlayerType(){
+		return type.equals(SOLVER) ? GameRecord.SOLVER : GameRecord.ALPHA_BETA;
+	}
+
+	/** @return (int) the threads one game of this engine uses **/
+	public int getThreads(){
+		return threads;
+	}
+
+	@Override
+	public String toString(){
+		return text;
+	}
+}
@@ -0,0 +1,95 @@
+package com.pennypop.project.bench;
+
+/**
+ * The wins, draws and losses of one engine against another, and the Elo difference they mean.
+ *
+ * The Elo difference comes from the score (a win is 1, a draw 1/2, a loss 0):
+ * <br>Elo = -400 * log10(1 / score - 1)
+ * <br>Its confidence interval comes from the standard error of the score, treating every game
+ * as an independent trial with three outcomes, and is turned into Elo the same way. With all
+ * wins or all losses the difference is infinite.
+ */
+public class MatchScore {
+	/** z value of a two-sided 95% confidence interval **/
+	private static final double Z_95 = 1.96;
+
+	private int wins, draws, losses;
+
+	public void addWin(){
+		wins++;
+	}
+
+	public void addDraw(){
+		draws++;
+	}
+
+	public void addLoss(){
+		losses++;
+	}
+
+	public int getWins(){
+		return wins;
+	}
+
+	public int getDraws(){
+		return draws;
+	}
+
+	public int getLosses(){
+		return losses;
+	}
+
+	public int getGames(){
+		return wins + draws + losses;
+	}
+
+	/** @return (double) the points per game, between 0 and 1, 0.5 if no game was played **/
+	public double getScore(){
+		int games = getGames();
+		return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+	}
+
+	/** @return (double) the standard error of getScore **/
+	public double getScoreError(){
+		int games = getGames();
+		if (games < 2)
+			return 0;
+		double score = getScore();
+		double variance = (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+				+ losses * score * score) / games;
+		return Math.sqrt(variance / games);
+	}
+
+	/** @return (double) the Elo difference, positive if the engine is stronger **/
+	public double getElo(){
+		return elo(getScore());
+	}
+
+	/** @return (double) the lower end of the 95% confidence interval of the Elo difference **/
+	public double getEloLow(){
+		return elo(getScore() - Z_95 * getScoreError());
+	}
+
+	/** @return (double) the upper end of the 95% confidence interval of the Elo difference **/
+	public double getEloHigh(){
+		return elo(getScore() + Z_95 * getScoreError());
+	}
+
+	/**
+	 * elo turns a score into an Elo difference.
+	 * @param score (double) the points per game
+	 * @return (double) the Elo difference, infinite for a score of 0 or 1 or beyond
+	 */
+	public static double elo(double score){
+		if (score <= 0)
+			return Double.NEGATIVE_INFINITY;
+		if (score >= 1)
+			return Double.POSITIVE_INFINITY;
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	@Override
+	public String toString(){
+		return String.format("+%d =%d -%d (%.1f%%)", wins, draws, losses, 100 * getScore());
+	}
+}
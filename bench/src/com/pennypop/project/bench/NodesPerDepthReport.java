@@ -0,0 +1,81 @@
+package com.pennypop.project.bench;
+
+import com.pennypop.project.SettingsScreen;
+import com.pennypop.project.AI.AlphaBetaAI;
+
+/**
+ * This class prints how many nodes each iteration of the AI's search takes, with principal
+ * variation search and aspiration windows turned off and on, so their saving can be checked.
+ * Every position is searched by a new AI to a fixed depth on one thread, and the nodes of each
+ * depth are added up over all positions.
+ * It runs without a libGDX window:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.NodesPerDepthReport [rows] [columns] [win_size] [depth]
+ *
+ * The positions that don't fit a smaller board are left out, see PositionCorpus.
+ *
+ * @see AlphaBetaAI
+ */
+public class NodesPerDepthReport {
+	/** positions to search with yellow (the AI) to move, as the columns played from an empty board **/
+	private static final String[] POSITIONS = {"3", "0", "332", "234", "33240", "32415", "3324155", "2233441"};
+	/** the search options compared, as {PVS, aspiration windows} **/
+	private static final boolean[][] OPTIONS = {{false, false}, {true, false}, {false, true}, {true, true}};
+	private static final String[] NAMES = {"alpha-beta", "PVS", "aspiration", "PVS+asp"};
+
+	public static void main(String[] args){
+		SettingsScreen.rows = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		SettingsScreen.columns = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+		SettingsScreen.win_size = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int depth = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		PositionCorpus corpus = new PositionCorpus(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size,
+				POSITIONS);
+		if (corpus.size() == 0){
+			System.out.println("No position fits a " + SettingsScreen.columns + "x" + SettingsScreen.rows + " board");
+			return;
+		}
+
+		System.out.println(SettingsScreen.columns + "x" + SettingsScreen.rows + "/" + SettingsScreen.win_size
+				+ ", depth " + depth + ", " + corpus.size() + " positions");
+
+		long[][] nodes = new long[OPTIONS.length][depth + 1];
+		for (int option = 0; option < OPTIONS.length; ++option){
+			for (int i = 0; i < corpus.size(); ++i){
+				AlphaBetaAI ai = new AlphaBetaAI(null);
+				ai.setDepthLimit(depth);
+				ai.setSearchOptions(OPTIONS[option][0], OPTIONS[option][1]);
+				ai.chooseMove(corpus.get(i));
+
+				long[] perDepth = ai.getNodesPerDepth();
+				for (int d = 0; d < perDepth.length && d <= depth; ++d){
+					nodes[option][d] += perDepth[d];
+				}
+				ai.dispose();
+			}
+		}
+
+		StringBuilder header = new StringBuilder("depth");
+		for (String name : NAMES){
+			header.append('\t').append(name);
+		}
+		System.out.println(header);
+
+		long[] totals = new long[OPTIONS.length];
+		for (int d = 1; d <= depth; ++d){
+			StringBuilder line = new StringBuilder().append(d);
+			for (int option = 0; option < OPTIONS.length; ++option){
+				line.append('\t').append(nodes[option][d]);
+				totals[option] += nodes[option][d];
+			}
+			System.out.println(line);
+		}
+
+		StringBuilder total = new StringBuilder("total");
+		StringBuilder saving = new StringBuilder("saving");
+		for (int option = 0; option < OPTIONS.length; ++option){
+			total.append('\t').append(totals[option]);
+			saving.append('\t').append(String.format("%.1f%%", 100.0 * (totals[0] - totals[option]) / totals[0]));
+		}
+		System.out.println(total);
+		System.out.println(saving);
+	}
+}
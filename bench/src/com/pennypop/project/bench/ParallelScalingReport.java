@@ -0,0 +1,60 @@
+package com.pennypop.project.bench;
+
+import com.pennypop.project.SettingsScreen;
+import com.pennypop.project.AI.AlphaBetaAI;
+
+/**
+ * This class prints how the AI's parallel search scales with the number of threads. For every
+ * thread count from 1 to N, a new AI searches the same positions to a fixed depth, and the time,
+ * nodes, nodes per second and speedup over one thread are printed.
+ * It runs without a libGDX window:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.ParallelScalingReport [rows] [columns] [win_size]
+ * [depth] [max threads]
+ *
+ * The positions that don't fit a smaller board are left out, see PositionCorpus.
+ *
+ * @see AlphaBetaAI
+ */
+public class ParallelScalingReport {
+	/** positions to search, as the columns played from an empty board **/
+	private static final String[] POSITIONS = {"", "3", "33", "332", "3324", "33240", "332415", "2233"};
+
+	public static void main(String[] args){
+		SettingsScreen.rows = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		SettingsScreen.columns = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+		SettingsScreen.win_size = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int depth = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		int maxThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		PositionCorpus corpus = new PositionCorpus(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size,
+				POSITIONS);
+		if (corpus.size() == 0){
+			System.out.println("No position fits a " + SettingsScreen.columns + "x" + SettingsScreen.rows + " board");
+			return;
+		}
+
+		System.out.println(SettingsScreen.columns + "x" + SettingsScreen.rows + "/" + SettingsScreen.win_size
+				+ ", depth " + depth + ", " + corpus.size() + " positions");
+		System.out.println("threads\ttime(ms)\tnodes\tnodes/s\tspeedup");
+
+		double baseTime = 0;
+		for (int threads = 1; threads <= maxThreads; ++threads){
+			AlphaBetaAI ai = new AlphaBetaAI(null);
+			ai.setThreads(threads);
+			ai.setDepthLimit(depth);
+
+			long nodes = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < corpus.size(); ++i){
+				ai.chooseMove(corpus.get(i));
+				nodes += ai.getNodes();
+			}
+			double millis = (System.nanoTime() - start) / 1e6;
+			ai.dispose();
+
+			if (threads == 1)
+				baseTime = millis;
+			System.out.println(threads + "\t" + String.format("%.1f", millis) + "\t" + nodes + "\t"
+					+ String.format("%.0f", nodes / (millis / 1000)) + "\t" + String.format("%.2f", baseTime / millis));
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package com.pennypop.project.bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.pennypop.project.SettingsScreen;
+import com.pennypop.project.AI.AlphaBetaAI;
+import com.pennypop.project.AI.Board;
+import com.pennypop.project.AI.GameRecordReader;
+import com.pennypop.project.AI.SearchStats;
+
+/**
+ * This class analyzes a file of positions with no libGDX window, on all the cores of the
+ * machine, and writes the AI's verdict on each one:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.PositionAnalyzer [-rows 6] [-columns 7] [-win 4]
+ * [-depth d] [-nodes n] [-time ms] [-threads cores] [-keep] [-out file] input
+ *
+ * The input is a game record file (every position of every game, see RecordPositionSource) or
+ * a text file of one position per line (see TextPositionSource). Without a depth or node
+ * budget every position gets the AI's normal time per move, and the endgame solver.
+ *
+ * The output has one tab separated line per position, in the order of the input:
+ * <br>id, best move, score, depth, nodes, source, played move
+ * <br>The score is for the player to move, positive if they are better, or win or loss when
+ * the search proved it (and draw when the solver did). The played move is only known for game
+ * records. Lines starting with # are the header and the summary.
+ *
+ * Each worker thread has its own AI, which forgets its table and move ordering history before
+ * every position, so the result of a position with a depth or node budget doesn't depend on the
+ * positions the worker analyzed before it. Clearing the 8 MB table takes about a millisecond,
+ * with very small budgets -keep skips it, and the results depend on the order of the work.
+ * The positions are read as the workers need them: at most WINDOW_PER_THREAD positions per
+ * thread are waiting or being analyzed, so a huge input runs in the memory of a small one.
+ */
+public class PositionAnalyzer {
+	/** positions read ahead per worker, enough to keep every worker busy while the oldest one finishes **/
+	private static final int WINDOW_PER_THREAD = 4;
+
+	private int rows = 6, columns = 7, winSize = 4;
+	private int depth;
+	private long nodes, time;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private File input, output;
+	/** keep the AIs' memory from one position to the next? **/
+	private boolean keep;
+
+	public static void main(String[] args){
+		PositionAnalyzer analyzer = new PositionAnalyzer();
+		try {
+			analyzer.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.out.println("usage: PositionAnalyzer [-rows 6] [-columns 7] [-win 4] [-depth d] [-nodes n] [-time ms] "
+					+ "[-threads cores] [-keep] [-out file] input");
+			return;
+		}
+
+		try {
+			analyzer.run();
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+	}
+
+	/**
+	 * parse reads the command line.
+	 * @param args (String[]) the arguments of main
+	 * @throws IllegalArgumentException if an argument is wrong or the input is missing
+	 */
+	private void parse(String[] args){
+		try {
+			for (int i = 0; i < args.length; ++i){
+				if (args[i].equals("-rows"))
+					rows = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-columns"))
+					columns = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-win"))
+					winSize = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-depth"))
+					depth = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-nodes"))
+					nodes = Long.parseLong(args[++i]);
+				else if (args[i].equals("-time"))
+					time = Long.parseLong(args[++i]);
+				else if (args[i].equals("-threads"))
+					threads = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-keep"))
+					keep = true;
+				else if (args[i].equals("-out"))
+					output = new File(args[++i]);
+				else
+					input = new File(args[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("not a number: " + e.getMessage());
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("missing value of " + args[args.length - 1]);
+		}
+		if (input == null)
+			throw new IllegalArgumentException("no input file");
+		threads = Math.max(1, threads);
+	}
+
+	/** Opens the input and output and analyzes every position **/
+	private void run() throws IOException{
+		Writer out = output == null ? new BufferedWriter(new OutputStreamWriter(System.out))
+				: new BufferedWriter(new FileWriter(output));
+		BufferedReader text = null;
+		try {
+			PositionSource source;
+			try {
+				source = new RecordPositionSource(GameRecordReader.open(input), rows, columns, winSize);
+			} catch (IOException e) {
+				// not a game record, read it as text
+				text = new BufferedReader(new FileReader(input));
+				source = new TextPositionSource(text, rows, columns, winSize);
+			}
+			analyze(source, out);
+		} finally {
+			if (text != null)
+				text.close();
+			out.flush();
+			if (output != null)
+				out.close();
+		}
+	}
+
+	/**
+	 * analyze analyzes every position of a source on a pool of worker threads and writes the
+	 * results in the order of the source.
+	 * @param source (PositionSource) the positions
+	 * @param out (Writer) where to write the results
+	 * @throws IOException if the source can't be read or the results can't be written
+	 */
+	public void analyze(PositionSource source, Writer out) throws IOException{
+		// the AIs read the board size from the SettingsScreen when they are made
+		SettingsScreen.rows = rows;
+		SettingsScreen.columns = columns;
+		SettingsScreen.win_size = winSize;
+
+		final BlockingQueue<AlphaBetaAI> engines = new ArrayBlockingQueue<AlphaBetaAI>(threads);
+		for (int i = 0; i < threads; ++i){
+			AlphaBetaAI ai = new AlphaBetaAI(null);
+			if (time != 0)
+				ai.setTimeLimit(time);
+			ai.setNodeLimit(nodes);
+			ai.setDepthLimit(depth);
+			engines.add(ai);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Queue<Future<String>> pending = new ArrayDeque<Future<String>>();
+		int window = threads * WINDOW_PER_THREAD;
+		int positions = 0;
+		long start = System.nanoTime();
+
+		out.write("# id\tmove\tscore\tdepth\tnodes\tsource\tplayed\n");
+		try {
+			while (source.next()){
+				final String id = source.getId();
+				final Board position = source.getBoard();
+				final int played = source.getPlayedMove();
+				pending.add(pool.submit(new Callable<String>(){
+					public String call() throws InterruptedException{
+						AlphaBetaAI ai = engines.take();
+						try {
+							if (!keep)
+								ai.clearSearchMemory();
+							return analyzePosition(ai, id, position, played);
+						} finally {
+							engines.put(ai);
+						}
+					}
+				}));
+				positions++;
+
+				// wait for the oldest position before reading more, so the input is only read as fast as it's analyzed
+				if (pending.size() >= window)
+					out.write(pending.remove().get());
+			}
+			while (!pending.isEmpty()){
+				out.write(pending.remove().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+			for (AlphaBetaAI ai : engines){
+				ai.dispose();
+			}
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		out.write(String.format("# %d positions, %d skipped, %.1f s, %.1f positions/s\n",
+				positions, source.getSkipped(), seconds, positions / seconds));
+	}
+
+	/**
+	 * analyzePosition searches one position.
+	 * @param ai (AlphaBetaAI) an AI no other thread is using
+	 * @param id (String) where the position comes from
+	 * @param position (Board) the position, with a move left to play
+	 * @param played (int) the column played in the position, or -1
+	 * @return (String) the output line of the position
+	 */
+	private static String analyzePosition(AlphaBetaAI ai, String id, Board position, int played){
+		int move = ai.chooseMove(position);
+		SearchStats stats = ai.getLastStats();
+
+		// a proven result is the largest value, positive for yellow
+		String score;
+		int value = ai.getBestScore();
+		boolean red = position.getCurrentPlayer() == Board.RED;
+		if (value == Integer.MAX_VALUE || value == Integer.MIN_VALUE)
+			score = (value == Integer.MAX_VALUE) != red ? "win" : "loss";
+		else if (value == 0 && stats.getSource() == SearchStats.Source.SOLVER)
+			score = "draw";
+		else
+			score = Integer.toString(red ? -value : value);
+
+		return id + "\t" + move + "\t" + score + "\t" + stats.getDepth() + "\t" + stats.getNodes() + "\t"
+				+ stats.getSource() + "\t" + (played == -1 ? "" : Integer.toString(played)) + "\n";
+	}
+}
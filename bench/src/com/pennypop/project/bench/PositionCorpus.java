@@ -0,0 +1,88 @@
+package com.pennypop.project.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.pennypop.project.AI.Board;
+
+/**
+ * A fixed set of positions for the benchmarks. The positions come from random games played
+ * with a fixed seed, so every run (and every release) benchmarks the same positions. The games
+ * lean towards the center columns like real games do, and stop at evenly spread move counts
+ * between the opening and the middle of the game. No position is game over.
+ *
+ * A corpus can also be given its positions as the columns played, e.g. by the reports that
+ * compare search options on hand-picked positions.
+ */
+public class PositionCorpus {
+	private static final long SEED = 20140601L;
+
+	private final List<Board> positions;
+
+	/**
+	 * The constructor plays the random games.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param count (int) the number of positions
+	 */
+	public PositionCorpus(int rows, int columns, int winSize, int count){
+		positions = new ArrayList<Board>(count);
+		Random random = new Random(SEED);
+		int maxMoves = rows * columns / 2;
+
+		while (positions.size() < count){
+			int moves = 1 + positions.size() * maxMoves / count;
+			Board board = Board.create(rows, columns, winSize);
+			while (board.getMoveCount() < moves){
+				// the average of two random columns is closer to the center
+				int col = (random.nextInt(columns) + random.nextInt(columns)) / 2;
+				if (!board.canPlay(col))
+					continue;
+				board.play(col);
+				if (board.isGameOver())
+					board.undo();
+			}
+			positions.add(board);
+		}
+	}
+
+	/**
+	 * This constructor plays the given moves. A position is left out if it doesn't fit the board:
+	 * a column is past the last one or full, or the game is over.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param moves (String[]) the positions, one digit per move, the column played
+	 */
+	public PositionCorpus(int rows, int columns, int winSize, String[] moves){
+		positions = new ArrayList<Board>(moves.length);
+		for (String position : moves){
+			Board board = play(Board.create(rows, columns, winSize), position);
+			if (board != null)
+				positions.add(board);
+		}
+	}
+
+	/** @return (Board) the board after the moves, or null if a move can't be played **/
+	private static Board play(Board board, String moves){
+		for (int i = 0; i < moves.length(); ++i){
+			int col = moves.charAt(i) - '0';
+			if (col < 0 || col >= board.getColumns() || !board.canPlay(col) || board.isGameOver())
+				return null;
+			board.play(col);
+		}
+		return board.isGameOver() ? null : board;
+	}
+
+	/** @return (int) the number of positions **/
+	public int size(){
+		return positions.size();
+	}
+
+	/** @return (Board) a copy of the i-th position, so benchmarks can't change the corpus **/
+	public Board get(int i){
+		return positions.get(i).copy();
+	}
+}
@@ -0,0 +1,34 @@
+package com.pennypop.project.bench;
+
+import java.io.IOException;
+
+import com.pennypop.project.AI.Board;
+
+/**
+ * The positions a PositionAnalyzer works through, read one at a time so an input of any size
+ * takes the same memory. A source is a cursor: next moves it to the following position, and
+ * the getters describe the position it's on.
+ *
+ * @see TextPositionSource, RecordPositionSource
+ */
+public interface PositionSource {
+	/**
+	 * next moves to the next position. Positions that can't be analyzed (wrong board size,
+	 * illegal moves, game over) are skipped and counted by getSkipped.
+	 * @return (boolean) false if there are no more positions
+	 * @throws IOException if the input can't be read
+	 */
+	public boolean next() throws IOException;
+
+	/** @return (String) where the position comes from, e.g. the line number **/
+	public String getId();
+
+	/** @return (Board) a new board with the position, the caller can keep it **/
+	public Board getBoard();
+
+	/** @return (int) the column that was played in the position, -1 if it isn't known **/
+	public int getPlayedMove();
+
+	/** @return (int) the number of lines or games skipped so far **/
+	public int getSkipped();
+}
@@ -0,0 +1,76 @@
+package com.pennypop.project.bench;
+
+import com.pennypop.project.AI.Board;
+import com.pennypop.project.AI.GameRecordReader;
+
+/**
+ * Every position of every game in a game record file, in the order they were played, with the
+ * move that was played in each, e.g. to find the blunders of the games. The id of a position
+ * is game:ply, the number of the game starting at 1 and the number of moves made before the
+ * position. Games of another board size and the rest of a game after an illegal move are
+ * skipped.
+ */
+public class RecordPositionSource implements PositionSource {
+	private final GameRecordReader games;
+	private final int rows, columns, winSize;
+	private int game, skipped;
+	/** the current position, null before the first game and after a game that is skipped **/
+	private Board board;
+	/** the number of moves of the current game on the board **/
+	private int ply;
+
+	/**
+	 * @param games (GameRecordReader) the games, before the first one
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 */
+	public RecordPositionSource(GameRecordReader games, int rows, int columns, int winSize){
+		this.games = games;
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+	}
+
+	public boolean next(){
+		// the next position is after the move played in this one
+		if (board != null)
+			board.play(games.getMove(ply++));
+
+		while (board == null || ply >= games.getMoveCount() || board.isGameOver() || !isLegal(games.getMove(ply))){
+			if (board != null && ply < games.getMoveCount() && !board.isGameOver())
+				skipped++; // an illegal move
+			if (!games.next())
+				return false;
+			game++;
+			board = null;
+			if (games.getRows() != rows || games.getColumns() != columns || games.getWinSize() != winSize){
+				skipped++;
+				continue;
+			}
+			board = Board.create(rows, columns, winSize);
+			ply = 0;
+		}
+		return true;
+	}
+
+	private boolean isLegal(int col){
+		return col >= 0 && col < columns && board.canPlay(col);
+	}
+
+	public String getId(){
+		return game + ":" + ply;
+	}
+
+	public Board getBoard(){
+		return board.copy();
+	}
+
+	public int getPlayedMove(){
+		return games.getMove(ply);
+	}
+
+	public int getSkipped(){
+		return skipped;
+	}
+}
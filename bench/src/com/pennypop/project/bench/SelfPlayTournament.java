@@ -0,0 +1,251 @@
+package com.pennypop.project.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.pennypop.project.SettingsScreen;
+import com.pennypop.project.AI.AIModule;
+import com.pennypop.project.AI.Board;
+import com.pennypop.project.AI.GameRecordWriter;
+
+/**
+ * This class plays a match between two engines with no libGDX window, on all the cores of the
+ * machine, and prints the result of the first engine:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.SelfPlayTournament [-rows 6] [-columns 7] [-win 4]
+ * [-games 100] [-plies 4] [-seed 1] [-threads cores] [-record file] engineA engineB
+ *
+ * The engines are EngineSpecs, e.g. "alphabeta:nodes=200000" against "alphabeta:time=50".
+ * Every game starts from an opening of random moves, made from the seed, so a match can be
+ * played again with the same openings. Every opening is played twice with the colors switched,
+ * since red moves first and has the advantage. Each game gets new engines, so no game depends
+ * on the games a thread played before it.
+ *
+ * The report has the wins, draws and losses, the Elo difference with its 95% confidence
+ * interval (see MatchScore) and the games per second. Time budgets are shared by the games
+ * running at the same time, node and depth budgets don't depend on the machine.
+ *
+ * With -record the games, openings included, are appended to a game record file (see GameRecord).
+ */
+public class SelfPlayTournament {
+	/** the result of a game for the first engine **/
+	private static final int LOSS = -1, DRAW = 0, WIN = 1;
+
+	private int rows = 6, columns = 7, winSize = 4;
+	private int games = 100;
+	private int plies = 4;
+	private long seed = 1;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private EngineSpec engineA, engineB;
+	private File recordFile;
+	/** appends the finished games to recordFile, null if they aren't recorded **/
+	private GameRecordWriter recorder;
+
+	public static void main(String[] args){
+		SelfPlayTournament tournament = new SelfPlayTournament();
+		try {
+			tournament.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.out.println("usage: SelfPlayTournament [-rows 6] [-columns 7] [-win 4] [-games 100] [-plies 4] "
+					+ "[-seed 1] [-threads cores] [-record file] engineA engineB");
+			System.out.println("engines: alphabeta[:time=ms,nodes=n,depth=d,threads=t] or solver[:time=ms]");
+			return;
+		}
+		tournament.run();
+	}
+
+	/**
+	 * parse reads the command line.
+	 * @param args (String[]) the arguments of main
+	 * @throws IllegalArgumentException if an argument is wrong or an engine is missing
+	 */
+	private void parse(String[] args){
+		try {
+			for (int i = 0; i < args.length; ++i){
+				if (args[i].equals("-rows"))
+					rows = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-columns"))
+					columns = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-win"))
+					winSize = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-games"))
+					games = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-plies"))
+					plies = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-seed"))
+					seed = Long.parseLong(args[++i]);
+				else if (args[i].equals("-threads"))
+					threads = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-record"))
+					recordFile = new File(args[++i]);
+				else if (engineA == null)
+					engineA = new EngineSpec(args[i]);
+				else
+					engineB = new EngineSpec(args[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("not a number: " + e.getMessage());
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("missing value of " + args[args.length - 1]);
+		}
+		if (engineB == null)
+			throw new IllegalArgumentException("two engines are needed");
+		games += games % 2; // every opening is played with both colors
+	}
+
+	/** Plays the games on a thread pool and prints the progress and the result **/
+	private void run(){
+		// the AIs read the board size from the SettingsScreen when they are made
+		SettingsScreen.rows = rows;
+		SettingsScreen.columns = columns;
+		SettingsScreen.win_size = winSize;
+		if (recordFile != null){
+			try {
+				recorder = new GameRecordWriter(recordFile);
+			} catch (IOException e) {
+				System.out.println(e);
+				return;
+			}
+		}
+
+		int parallelGames = Math.max(1, threads / Math.max(engineA.getThreads(), engineB.getThreads()));
+		System.out.println(engineA + " vs " + engineB + ", " + columns + "x" + rows + "/" + winSize + ", "
+				+ games + " games, " + plies + " random plies, seed " + seed + ", " + parallelGames + " at a time");
+
+		ExecutorService pool = Executors.newFixedThreadPool(parallelGames);
+		CompletionService<Integer> results = new ExecutorCompletionService<Integer>(pool);
+		for (int i = 0; i < games; ++i){
+			final int game = i;
+			results.submit(new Callable<Integer>(){
+				public Integer call(){
+					return playGame(game);
+				}
+			});
+		}
+
+		MatchScore total = new MatchScore();
+		long start = System.nanoTime();
+		int reportEvery = Math.max(1, games / 10);
+		try {
+			for (int i = 1; i <= games; ++i){
+				int result = results.take().get();
+				if (result == WIN)
+					total.addWin();
+				else if (result == DRAW)
+					total.addDraw();
+				else
+					total.addLoss();
+				if (i % reportEvery == 0 && i < games)
+					System.out.println(i + " games: " + total);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException e) {
+			System.out.println(e);
+			return;
+		} finally {
+			pool.shutdownNow();
+			closeRecorder();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(engineA + ": " + total);
+		System.out.println(String.format("Elo %+.1f, 95%% interval [%+.1f, %+.1f]",
+				total.getElo(), total.getEloLow(), total.getEloHigh()));
+		System.out.println(String.format("%.1f s, %.2f games/s", seconds, games / seconds));
+	}
+
+	/** Closes the record file, if games are recorded **/
+	private void closeRecorder(){
+		if (recorder == null)
+			return;
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+	}
+
+	/**
+	 * playGame plays one game of the match. Even games have the first engine as red, odd games
+	 * play the same opening with the colors switched.
+	 * @param game (int) the number of the game
+	 * @return (int) WIN, DRAW or LOSS for the first engine
+	 */
+	private int playGame(int game){
+		boolean aIsRed = game % 2 == 0;
+		Board board = opening(game / 2);
+		AIModule a = engineA.create();
+		AIModule b = engineB.create();
+		AIModule red = aIsRed ? a : b;
+		AIModule yellow = aIsRed ? b : a;
+
+		try {
+			while (!board.isGameOver()){
+				AIModule engine = board.getCurrentPlayer() == Board.RED ? red : yellow;
+				int col = engine.chooseMove(board.copy());
+				if (col < 0 || col >= columns || !board.canPlay(col)){
+					// an illegal move loses the game
+					System.out.println("game " + game + ": illegal move " + col + " by " + (engine == a ? engineA : engineB));
+					return engine == a ? LOSS : WIN;
+				}
+				board.play(col);
+			}
+		} finally {
+			a.dispose();
+			b.dispose();
+			record(board, red == a ? engineA : engineB, yellow == a ? engineA : engineB);
+		}
+
+		int winner = board.getWinner();
+		if (winner == Board.EMPTY)
+			return DRAW;
+		return (winner == Board.RED) == aIsRed ? WIN : LOSS;
+	}
+
+	/**
+	 * record appends a game to the record file, if games are recorded. An illegal move ends the
+	 * game before it's over, so it's recorded as unfinished.
+	 * @param board (Board) the position at the end of the game
+	 * @param red (EngineSpec) the engine that played red
+	 * @param yellow (EngineSpec) the engine that played yellow
+	 */
+	private void record(Board board, EngineSpec red, EngineSpec yellow){
+		if (recorder == null)
+			return;
+		try {
+			recorder.writeGame(board, red.getPlayerType(), yellow.getPlayerType());
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+	}
+
+	/**
+	 * opening plays random moves from the empty board. The moves only depend on the seed and the
+	 * number of the opening, and never end the game.
+	 * @param number (int) the number of the opening
+	 * @return (Board) the position after the opening
+	 */
+	private Board opening(int number){
+		Random random = new Random(seed * 0x9E3779B97F4A7C15L + number);
+		Board board = Board.create(rows, columns, winSize);
+		int tries = 0;
+		while (board.getMoveCount() < plies && tries++ < 1000){
+			int col = random.nextInt(columns);
+			if (!board.canPlay(col))
+				continue;
+			board.play(col);
+			if (board.isGameOver())
+				board.undo();
+		}
+		return board;
+	}
+}
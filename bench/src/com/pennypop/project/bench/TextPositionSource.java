@@ -0,0 +1,79 @@
+package com.pennypop.project.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.pennypop.project.AI.Board;
+
+/**
+ * Positions from a text file, one per line. A line is the columns played from the empty board,
+ * starting at 0 and separated by spaces or commas, e.g. "3 3 2 4". Empty lines and lines
+ * starting with # are ignored. The id of a position is its line number.
+ */
+public class TextPositionSource implements PositionSource {
+	private final BufferedReader in;
+	private final int rows, columns, winSize;
+	private int lineNumber, skipped;
+	private Board board;
+
+	/**
+	 * @param in (BufferedReader) the lines, closed by the caller
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 */
+	public TextPositionSource(BufferedReader in, int rows, int columns, int winSize){
+		this.in = in;
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+	}
+
+	public boolean next() throws IOException{
+		String line;
+		while ((line = in.readLine()) != null){
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#"))
+				continue;
+			board = parse(line);
+			if (board != null)
+				return true;
+			skipped++;
+		}
+		return false;
+	}
+
+	/** @return (Board) the position of the line, or null if a move isn't a legal column or the game is over **/
+	private Board parse(String line){
+		Board position = Board.create(rows, columns, winSize);
+		for (String move : line.split("[\\s,]+")){
+			int col;
+			try {
+				col = Integer.parseInt(move);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			if (col < 0 || col >= columns || !position.canPlay(col) || position.isGameOver())
+				return null;
+			position.play(col);
+		}
+		return position.isGameOver() ? null : position;
+	}
+
+	public String getId(){
+		return Integer.toString(lineNumber);
+	}
+
+	public Board getBoard(){
+		return board;
+	}
+
+	public int getPlayedMove(){
+		return -1;
+	}
+
+	public int getSkipped(){
+		return skipped;
+	}
+}
@@ -0,0 +1,196 @@
+package com.pennypop.project.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.pennypop.project.api.ApiCache;
+import com.pennypop.project.api.ApiClient;
+import com.pennypop.project.api.Weather;
+import com.pennypop.project.api.WeatherParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * This class checks the weather fetch of the main screen's API button against a stub HTTP
+ * server on localhost, with no libGDX window and no network:
+ * <br>java -cp "bench/bin:bin:libs/*" com.pennypop.project.bench.WeatherStubCheck
+ *
+ * The stub answers like the Open Weather API, with an ETag, and answers 304 to a request that
+ * has it. It can be made slow or stopped. The checks are:
+ * <ul>
+ * <li>the first get fetches and parses the weather, clicks while it's loading join the request,</li>
+ * <li>fresh weather is answered at once without a request, also by a new cache on the same file,</li>
+ * <li>stale weather is answered at once and revalidated with a 304,</li>
+ * <li>a server slower than the read timeout fails the get, or gives the last weather if there is one,</li>
+ * <li>a stopped server gives the last weather.</li>
+ * </ul>
+ * It prints every check and exits with 1 if one failed.
+ *
+ * @see com.pennypop.project.buttons.APIButton
+ */
+public class WeatherStubCheck {
+	private static final String JSON = "{\"coord\":{\"lon\":-122.42,\"lat\":37.77},"
+			+ "\"weather\":[{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}],"
+			+ "\"base\":\"stations\",\"main\":{\"temp\":288.15,\"pressure\":1015,\"humidity\":82},"
+			+ "\"wind\":{\"speed\":4.6,\"deg\":250},\"name\":\"San Francisco\",\"cod\":200}";
+	private static final String ETAG = "\"weather-1\"";
+	/** milliseconds the client waits, short so the slow server check is quick **/
+	private static final int CONNECT_TIMEOUT = 500, READ_TIMEOUT = 500;
+	/** milliseconds to wait for a callback **/
+	private static final long WAIT = 5000;
+
+	private final HttpServer server;
+	private final String url;
+	/** requests the stub got, and how many of them it answered 304 **/
+	private final AtomicInteger requests = new AtomicInteger(), notModified = new AtomicInteger();
+	/** milliseconds the stub waits before answering **/
+	private volatile int delay;
+	private int failures;
+
+	private WeatherStubCheck() throws IOException{
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/weather", new HttpHandler(){
+			public void handle(HttpExchange exchange) throws IOException{
+				requests.incrementAndGet();
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.getResponseHeaders().set("ETag", ETAG);
+				if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))){
+					notModified.incrementAndGet();
+					exchange.sendResponseHeaders(304, -1);
+				} else {
+					byte[] body = JSON.getBytes("UTF-8");
+					exchange.sendResponseHeaders(200, body.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(body);
+				}
+				exchange.close();
+			}
+		});
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/weather?q=San%20Francisco,US";
+	}
+
+	public static void main(String[] args) throws Exception{
+		WeatherStubCheck check = new WeatherStubCheck();
+		try {
+			check.run();
+		} finally {
+			check.server.stop(0);
+		}
+		System.out.println(check.failures == 0 ? "all checks passed" : check.failures + " checks failed");
+		System.exit(check.failures == 0 ? 0 : 1);
+	}
+
+	private void run() throws Exception{
+		File file = File.createTempFile("weather_cache", ".bin");
+		file.delete();
+		ApiClient client = new ApiClient(CONNECT_TIMEOUT, READ_TIMEOUT);
+		ApiCache<Weather> cache = Weather.newCache(client, url, file);
+
+		// the first click fetches, a second click while it's loading joins it
+		delay = 200;
+		Result first = new Result(), second = new Result();
+		boolean cached = cache.get(first);
+		cache.get(second);
+		first.await();
+		second.await();
+		check("first get waits for the API", !cached);
+		check("the weather is parsed", first.weather != null && first.weather.getCity().equals("San Francisco")
+				&& first.weather.getDescription().equals("light rain") && first.weather.getKelvin() == 288.15
+				&& first.weather.getWindSpeed() == 4.6);
+		check("a click while loading joins the request", second.weather != null && requests.get() == 1);
+
+		// fresh weather, in memory and in the file
+		delay = 0;
+		Result fresh = new Result();
+		check("fresh weather is answered at once", cache.get(fresh) && fresh.weather != null);
+		Result restarted = new Result();
+		check("fresh weather survives a restart", Weather.newCache(client, url, file).get(restarted)
+				&& restarted.weather != null);
+		check("fresh weather makes no request", requests.get() == 1);
+
+		// stale weather is shown and revalidated
+		ApiCache<Weather> stale = new ApiCache<Weather>(client, url, new WeatherParser(), Weather.CODEC, file, 0,
+				Weather.STALE);
+		Result revalidated = new Result();
+		check("stale weather is answered at once", stale.get(revalidated) && revalidated.weather != null);
+		waitFor(2);
+		check("stale weather is revalidated with a 304", requests.get() == 2 && notModified.get() == 1);
+
+		// a server slower than the read timeout
+		delay = READ_TIMEOUT * 3;
+		File empty = File.createTempFile("weather_cache", ".bin");
+		empty.delete();
+		Result timedOut = new Result();
+		long start = System.nanoTime();
+		Weather.newCache(client, url, empty).get(timedOut);
+		timedOut.await();
+		long millis = (System.nanoTime() - start) / 1000000;
+		check("a slow server times out (" + millis + " ms)", timedOut.error instanceof SocketTimeoutException
+				&& millis < READ_TIMEOUT * 2);
+		Result slowStale = new Result();
+		ApiCache<Weather> tooOld = new ApiCache<Weather>(client, url, new WeatherParser(), Weather.CODEC, file, 0, 0);
+		tooOld.get(slowStale);
+		slowStale.await();
+		check("a slow server gives the last weather", slowStale.weather != null);
+
+		// a stopped server
+		server.stop(0);
+		Result down = new Result();
+		new ApiCache<Weather>(client, url, new WeatherParser(), Weather.CODEC, file, 0, 0).get(down);
+		down.await();
+		check("a stopped server gives the last weather", down.weather != null);
+
+		file.delete();
+		empty.delete();
+	}
+
+	/** Waits until the stub has had the given number of requests, and its answer has been stored **/
+	private void waitFor(int count) throws InterruptedException{
+		long end = System.currentTimeMillis() + WAIT;
+		while (requests.get() < count && System.currentTimeMillis() < end){
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+	}
+
+	private void check(String name, boolean passed){
+		System.out.println((passed ? "ok      " : "FAILED  ") + name);
+		if (!passed)
+			failures++;
+	}
+
+	/** The first answer of a get **/
+	private static class Result implements ApiClient.Callback<Weather> {
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile Weather weather;
+		private volatile IOException error;
+
+		public void succeeded(Weather result){
+			if (done.getCount() > 0)
+				weather = result;
+			done.countDown();
+		}
+
+		public void failed(IOException e){
+			if (done.getCount() > 0)
+				error = e;
+			done.countDown();
+		}
+
+		void await() throws InterruptedException{
+			done.await(WAIT, TimeUnit.MILLISECONDS);
+		}
+	}
+}
@@ -1,5 +1,14 @@
 package com.pennypop.project.AI;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 import com.pennypop.project.GameScreen;
 
 /**
@@ -9,8 +18,15 @@ import com.pennypop.project.GameScreen;
  * 
  * getNextMove() will be invoked by the instance of the 
  * GameScreen class being passed in as the argument of the
- * AI's constructor. This method will run for the specified
- * amount of time being stored in the variable TIME_LIMIT.
+ * AI's constructor. This method will run for about the
+ * amount of time being stored in the variable TIME_LIMIT, on average.
+ * 
+ * To keep the game responsive, the GameScreen uses requestMove instead. It runs
+ * chooseMove on a background thread against a copy of the board and hands the
+ * chosen column to a MoveListener, so the screen keeps rendering while the AI thinks.
+ * 
+ * After every move it chooses, an AI reports a SearchStats to its SearchListeners
+ * (see reportSearch), so the depth, speed and quality of its search can be watched.
  * 
  * @author Angie (Wai Ying Li)
  * @see AlphaBetaAI
@@ -18,8 +34,37 @@ import com.pennypop.project.GameScreen;
  */
 public abstract class AIModule {
 	protected final GameScreen game;
-	protected boolean turn;
-	private static final int TIME_LIMIT = 300;
+	/** true while the AI is searching, read by the render thread **/
+	protected volatile boolean turn;
+	/** the average time per move in milliseconds **/
+	protected static final int TIME_LIMIT = 300;
+	/** milliseconds dispose waits for a cancelled search to return **/
+	protected static final int STOP_WAIT = 1000;
+	/** the thread that runs requestMove searches, created the first time it's needed **/
+	private ExecutorService searchThread;
+	/** the search started by the last requestMove, null if there isn't one **/
+	private Future<Integer> pending;
+	/** get the statistics of every move, can be added and removed from any thread **/
+	private final List<SearchListener> searchListeners = new CopyOnWriteArrayList<SearchListener>();
+	/** statistics of the last move chosen, null before the first one **/
+	private volatile SearchStats lastStats;
+	
+	/**
+	 * A MoveListener gets the column chosen by an asynchronous search. It is called on the
+	 * AI's search thread, so anything touching the UI must be posted to the render thread
+	 * (e.g. with Gdx.app.postRunnable).
+	 */
+	public interface MoveListener {
+		void moveChosen(int col);
+	}
+	
+	/**
+	 * A SearchListener gets the statistics of every move the AI chooses. Like a MoveListener,
+	 * it's called on the thread that chose the move.
+	 */
+	public interface SearchListener {
+		void searchFinished(SearchStats stats);
+	}
 	
 	/**
 	 * This is the AIModule constructor that should be called 
@@ -47,20 +92,6 @@ public abstract class AIModule {
 		return turn;
 	}
 	
-	/** 
-	 * terminate checks to see if the AI went pass the specified time
-	 * limit (300 milliseconds) to make its move. If so, the AI will
-	 * terminate and be forced to make a move with the information it 
-	 * has gathered so far. 
-	 * @param startTime
-	 * (long) the time when the AI's getNextMove method was
-	 * called by a GameScreen instance.
-	 * @return a boolean of whether the AI should terminate or not.
-	 */
-	protected boolean terminate(long startTime){
-		return System.currentTimeMillis() - startTime > TIME_LIMIT;
-	}
-	
 	/**
 	 * getNextMove gets the best possible move that the AI should make.
 	 * This method is basically where the AI will go through a decision-
@@ -69,4 +100,138 @@ public abstract class AIModule {
 	 * @see AlphaBeta, GameScreen
 	 */
 	public abstract void getNextMove();
+	
+	/**
+	 * chooseMove gets the best column for the player to move in the given position, without
+	 * making the move. The position is only used for the simulation.
+	 * @param position (Board) the position to search, must have at least one playable column
+	 * @return (int) the column index of the chosen move
+	 */
+	public abstract int chooseMove(Board position);
+	
+	/**
+	 * requestMove starts searching the given position on a background thread and returns right away.
+	 * Only one search runs at a time, a search that is still running gets cancelled.
+	 * @param snapshot (Board) a copy of the position that nothing else will change during the search
+	 * @param listener (MoveListener) gets the chosen column when the search is done. It isn't
+	 * called if the search is cancelled.
+	 * @return (Future) the chosen column, can be used to cancel the search
+	 */
+	public synchronized Future<Integer> requestMove(final Board snapshot, final MoveListener listener){
+		turn = true;
+		return runInBackground(new Callable<Integer>(){
+			public Integer call(){
+				try {
+					int col = chooseMove(snapshot);
+					if (!Thread.currentThread().isInterrupted())
+						listener.moveChosen(col);
+					return col;
+				} finally {
+					turn = false;
+				}
+			}
+		});
+	}
+	
+	public void addSearchListener(SearchListener listener){
+		searchListeners.add(listener);
+	}
+	
+	public void removeSearchListener(SearchListener listener){
+		searchListeners.remove(listener);
+	}
+	
+	/** @return (SearchStats) the statistics of the last move chosen, null if there wasn't one yet **/
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+	
+	/**
+	 * reportSearch should be called by an AI once for every move it chooses. It keeps the
+	 * statistics for getLastStats and hands them to the SearchListeners.
+	 * @param stats (SearchStats) the statistics of the move
+	 */
+	protected void reportSearch(SearchStats stats){
+		lastStats = stats;
+		for (SearchListener listener : searchListeners){
+			listener.searchFinished(stats);
+		}
+	}
+	
+	/**
+	 * startPondering lets the AI think about the given position while it's the opponent's turn,
+	 * so its next requestMove can reuse that work. Pondering stops when requestMove or cancel is
+	 * called. The default does nothing.
+	 * @param snapshot (Board) a copy of the position with the opponent to move
+	 */
+	public void startPondering(Board snapshot){
+	}
+	
+	/**
+	 * runInBackground runs a task on the AI's search thread. Only one task runs at a time, a task
+	 * that is still running gets cancelled.
+	 * @param task (Callable) the work to do
+	 * @return (Future) the result of the task, can be used to cancel it
+	 */
+	protected synchronized Future<Integer> runInBackground(Callable<Integer> task){
+		cancel();
+		if (searchThread == null){
+			searchThread = Executors.newSingleThreadExecutor(new ThreadFactory(){
+				public Thread newThread(Runnable r){
+					Thread thread = new Thread(r, "AI search");
+					thread.setDaemon(true); // don't keep the application alive
+					return thread;
+				}
+			});
+		}
+		
+		pending = searchThread.submit(task);
+		return pending;
+	}
+	
+	/**
+	 * cancel stops the search started by requestMove (or the pondering), if there is one. 
+	 * The listener of a cancelled search is never called.
+	 */
+	public synchronized void cancel(){
+		if (pending != null){
+			stopSearch();
+			pending.cancel(true);
+			pending = null;
+		}
+	}
+	
+	/**
+	 * stopSearch asks a running chooseMove to return as soon as possible. It is called from
+	 * another thread by cancel. The default does nothing, so the search runs to its time limit.
+	 */
+	protected void stopSearch(){
+	}
+	
+	/**
+	 * dispose frees anything the AI holds on to, like threads. It should be called by the
+	 * GameScreen when the game is disposed. A running search is cancelled, and dispose waits
+	 * (up to STOP_WAIT) for it to return, so the AI's tables can be saved afterwards.
+	 */
+	public synchronized void dispose(){
+		cancel();
+		if (searchThread != null){
+			searchThread.shutdownNow();
+			awaitStop(searchThread);
+			searchThread = null;
+		}
+	}
+	
+	/**
+	 * awaitStop waits for the threads of a shut down executor to finish their tasks.
+	 * @param threads (ExecutorService) an executor that was shut down
+	 */
+	protected static void awaitStop(ExecutorService threads){
+		try {
+			if (!threads.awaitTermination(STOP_WAIT, TimeUnit.MILLISECONDS))
+				System.out.println("AI search didn't stop in " + STOP_WAIT + " ms");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 }
@@ -1,8 +1,15 @@
 package com.pennypop.project.AI;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.pennypop.project.GameScreen;
 import com.pennypop.project.SettingsScreen;
@@ -12,10 +19,44 @@ import com.pennypop.project.SettingsScreen;
  * This AI uses the Minimax and Alpha-beta pruning algorithm to predict the human
  * player's action with the assumption that he or she is playing optimally.
  * AI is treated as the "MAX" (yellow) player while the human is treated as the
- * "MIN" (red) player.
+ * "MIN" (red) player. The AI can play red too (e.g. in self-play), then it picks the
+ * move with the lowest utility value.
  * 
  * This AI performs iterative deepening search to explore the game tree with the
- * limited amount of time that it has.
+ * limited amount of time that it has. A TimeManager gives every turn its time from the game
+ * phase, and only starts an iteration if it should finish in that time. An iteration that
+ * still gets stopped is thrown away, the move of the last finished one is played. Every
+ * iteration starts with an aspiration window around the score of the iteration two depths
+ * before it (odd and even depths end on different players' moves, so their scores swing back
+ * and forth) and follows the previous iteration's principal variation (the line of best
+ * moves) first. Only the first move of a node is searched with the full window, the others
+ * are searched with a null window, which only proves that they are worse, and are searched
+ * again if they turn out better (principal variation search).
+ * 
+ * The search can use more than one thread (see setThreads). The extra threads are
+ * helper AIs that search the same position at the same time and share the transposition
+ * table ("Lazy SMP"), so every thread profits from the positions the others already
+ * searched. With one thread the search runs on the calling thread only and is deterministic
+ * for a fixed depth (see setDepthLimit).
+ * 
+ * With pondering on (see setPondering), the AI keeps searching while the human thinks.
+ * It searches the reply to every possible human move, one depth at a time, filling the
+ * transposition table and remembering the best reply for each. If the human then plays
+ * a move whose reply was already searched as deep as a normal turn gets, that reply is
+ * played right away. Otherwise the normal search runs with a table full of useful results.
+ * 
+ * With an opening book (see setOpeningBook), positions in the book are answered from it
+ * without searching.
+ * 
+ * On boards with more than SPARSE_CELLS cells (e.g. 19x19 or 50x50 for gomoku-like games), the
+ * search only looks at the moves that land near the discs already played, or at the winning or
+ * blocking moves when there are some (see pruneMoves), which keeps the branching factor small
+ * however many columns there are.
+ * 
+ * Near the end of the game (ENDGAME_CELLS empty cells or less) the AI first tries to prove
+ * the result with a Solver, which usually takes a few milliseconds. If the proof finishes in
+ * SOLVER_TIME_LIMIT, its perfect move is played, otherwise the normal search gets the rest of
+ * the time.
  * 
  * To use this AI, simply initialize it in the GameScreen class.
  * 
@@ -26,15 +67,112 @@ import com.pennypop.project.SettingsScreen;
 public class AlphaBetaAI extends AIModule{
 	/** A list of the utility values for each possible move(the columns) that the AI can make**/
 	private List<Integer> colValues;
-	/**The lowest row index with an unfilled spot**/
-	private int firstOpenRow;
 	/**The number of levels down from the game tree's root that the AI should explore**/
 	private int plyLimit;
+	/**The position being searched, a copy of the game's board so the simulation never touches the GameScreen**/
+	private Board board;
+	/**Results of positions already searched, kept across iterations and turns**/
+	private final TranspositionTable table;
+	/**Set when the time runs out in the middle of a search, so unfinished results aren't stored in the table**/
+	private boolean timeUp;
+	/**Decides which moves to try first so alpha-beta can prune more**/
+	private final MoveOrderer orderer;
+	/**Deepest ply that can be searched, the number of cells but at most MAX_PLY**/
+	private final int maxPly;
+	/**Is the board large enough to only search the moves near the discs? See pruneMoves**/
+	private final boolean sparse;
+	/**Keeps the utility value of the board up to date as moves are simulated**/
+	private final Evaluator evaluator;
+	/**Principal variation of each ply of the current iteration (triangular table) and its length**/
+	private final int[][] pv;
+	private final int[] pvLength;
+	/**Principal variation of the last finished iteration, searched first by the next one**/
+	private final int[] lastPv;
+	private int lastPvLength;
+	/**Set while the nodes being searched are on lastPv**/
+	private boolean followPv;
+	/**Nodes searched by each iteration of the last search, by depth, including re-searches**/
+	private final long[] nodesPerDepth;
+	/**Score of each finished iteration of the last search, by depth**/
+	private final int[] scorePerDepth;
+	/**Can principal variation search and aspiration windows be used? Both are on unless turned off for comparisons**/
+	private boolean pvsEnabled, aspirationEnabled;
+	/**Limits the time of a turn and decides if another iteration is worth starting, one per thread**/
+	private final TimeManager clock;
+	/**Set to make every thread of the current search stop, shared with the helper AIs**/
+	private final AtomicBoolean stop;
+	/**Number of nodes this AI visited in its last search, and its transposition table lookups and hits**/
+	private long nodes, tableProbes, tableHits;
+	/**Where the last move came from, one of the SearchStats sources**/
+	private SearchStats.Source moveSource;
+	/**Deepest iteration this AI finished in its last search, and the best move and its utility value of that iteration**/
+	private int completedDepth, bestMove, bestScore;
+	/**Value of the best move of the last searchRoot call**/
+	private int rootValue;
+	/**Stop after finishing this depth instead of using the time limit, 0 means no depth limit**/
+	private int depthLimit;
+	/**Stop after searching this many nodes per thread instead of using the time limit, 0 means no node limit**/
+	private long nodeLimit;
+	/**Number of threads searching, including the calling thread**/
+	private int threads;
+	/**The helper AIs and the pool running them, only used when threads > 1**/
+	private final List<AlphaBetaAI> helpers;
+	private ExecutorService pool;
+	/**Proves the result near the end of the game, null if the board is too big for it and for helper AIs**/
+	private final Solver endgame;
+	/**Precomputed moves for early positions, null if there's no book for the board size**/
+	private OpeningBook book;
+	/**Is the AI allowed to think during the human's turn?**/
+	private boolean ponderEnabled;
+	/**Set while pondering, the time limit isn't used then since the human can take as long as they want**/
+	private volatile boolean pondering;
+	/**For each human move: the hash of the position after it, the best reply found and how deep it was searched**/
+	private final long[] ponderHash;
+	private final int[] ponderReply, ponderDepth;
+	/**Depth reached by the last real (not pondering) search, a pondered reply this deep is good enough to play**/
+	private int lastTurnDepth;
+	/**log2 of the number of transposition table buckets, 2^18 buckets of 32 bytes is 8 MB**/
+	private static final int TABLE_BUCKET_BITS = 18;
+	/**Half the width of the first aspiration window, it's doubled on every fail**/
+	private static final int ASPIRATION_WINDOW = 16;
+	/**The endgame solver is tried when this many cells or less are empty, and gets this many milliseconds**/
+	private static final int ENDGAME_CELLS = 26, SOLVER_TIME_LIMIT = 100;
+	/**log2 of the number of endgame solver table buckets, 2^16 buckets of 32 bytes is 2 MB**/
+	private static final int SOLVER_BUCKET_BITS = 16;
+	/**Searches never go deeper than this, so the tables of the search stay small on large boards**/
+	private static final int MAX_PLY = 64;
+	/**Boards with more cells than this only search the moves near the discs**/
+	private static final int SPARSE_CELLS = 100;
 	
 	public AlphaBetaAI(GameScreen game){
 		super(game);
-		firstOpenRow = 0;
 		colValues = new ArrayList<Integer>(SettingsScreen.columns);
+		table = new TranspositionTable(TABLE_BUCKET_BITS);
+		maxPly = Math.min(SettingsScreen.rows * SettingsScreen.columns, MAX_PLY);
+		sparse = SettingsScreen.rows * SettingsScreen.columns > SPARSE_CELLS;
+		orderer = new MoveOrderer(SettingsScreen.columns, maxPly);
+		evaluator = new Evaluator(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
+		if (sparse)
+			evaluator.trackCandidates();
+		stop = new AtomicBoolean(false);
+		clock = new TimeManager(TIME_LIMIT, SettingsScreen.rows, SettingsScreen.columns);
+		pv = new int[maxPly + 1][maxPly + 1];
+		pvLength = new int[maxPly + 1];
+		lastPv = new int[maxPly + 1];
+		nodesPerDepth = new long[maxPly + 1];
+		scorePerDepth = new int[maxPly + 1];
+		pvsEnabled = true;
+		aspirationEnabled = true;
+		helpers = new ArrayList<AlphaBetaAI>();
+		threads = 1;
+		ponderHash = new long[SettingsScreen.columns];
+		ponderReply = new int[SettingsScreen.columns];
+		ponderDepth = new int[SettingsScreen.columns];
+		Arrays.fill(ponderReply, -1);
+		if (Solver.canSolve(SettingsScreen.rows, SettingsScreen.columns))
+			endgame = new Solver(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size, SOLVER_BUCKET_BITS);
+		else
+			endgame = null;
 		
 		// initialize the utility values to arbitrary zeros
 		for (int i = 0; i < SettingsScreen.columns; ++i){
@@ -42,109 +180,875 @@ public class AlphaBetaAI extends AIModule{
 		}
 	} // end constructor
 	
+	/**
+	 * This constructor makes a helper AI for a parallel search. The helper has its own board, move
+	 * ordering and utility values but shares the main AI's transposition table and stop flag.
+	 * @param main (AlphaBetaAI) the AI that owns the helper
+	 */
+	private AlphaBetaAI(AlphaBetaAI main){
+		super(main.game);
+		colValues = new ArrayList<Integer>(SettingsScreen.columns);
+		table = main.table;
+		maxPly = Math.min(SettingsScreen.rows * SettingsScreen.columns, MAX_PLY);
+		sparse = SettingsScreen.rows * SettingsScreen.columns > SPARSE_CELLS;
+		orderer = new MoveOrderer(SettingsScreen.columns, maxPly);
+		evaluator = new Evaluator(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
+		if (sparse)
+			evaluator.trackCandidates();
+		stop = main.stop;
+		clock = new TimeManager(TIME_LIMIT, SettingsScreen.rows, SettingsScreen.columns);
+		pv = new int[maxPly + 1][maxPly + 1];
+		pvLength = new int[maxPly + 1];
+		lastPv = new int[maxPly + 1];
+		nodesPerDepth = new long[maxPly + 1];
+		scorePerDepth = new int[maxPly + 1];
+		pvsEnabled = main.pvsEnabled;
+		aspirationEnabled = main.aspirationEnabled;
+		helpers = new ArrayList<AlphaBetaAI>();
+		threads = 1;
+		depthLimit = main.depthLimit;
+		nodeLimit = main.nodeLimit;
+		ponderHash = new long[0]; // helpers don't ponder
+		ponderReply = new int[0];
+		ponderDepth = new int[0];
+		endgame = null;
+		
+		for (int i = 0; i < SettingsScreen.columns; ++i){
+			colValues.add(0);
+		}
+	}
+	
+	/**
+	 * setThreads sets how many threads search at the same time. One thread is the thread that
+	 * calls getNextMove/chooseMove, the others run in a pool owned by this AI.
+	 * @param threads (int) the number of threads, at least 1
+	 */
+	public void setThreads(int threads){
+		threads = Math.max(1, threads);
+		if (threads == this.threads)
+			return;
+		
+		shutdownPool();
+		helpers.clear();
+		this.threads = threads;
+		if (threads == 1)
+			return;
+		
+		for (int i = 1; i < threads; ++i){
+			helpers.add(new AlphaBetaAI(this));
+		}
+		pool = Executors.newFixedThreadPool(threads - 1, new ThreadFactory(){
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "AlphaBetaAI helper");
+				thread.setDaemon(true); // don't keep the application alive
+				return thread;
+			}
+		});
+	}
+	
+	public int getThreads(){
+		return threads;
+	}
+	
+	/**
+	 * setDepthLimit makes the search stop after finishing the given depth, ignoring the time limit.
+	 * This gives repeatable searches for testing and reports.
+	 * @param depthLimit (int) the depth to search to, 0 to use the time limit again
+	 */
+	public void setDepthLimit(int depthLimit){
+		this.depthLimit = depthLimit;
+		for (AlphaBetaAI helper : helpers){
+			helper.depthLimit = depthLimit;
+		}
+	}
+	
+	/**
+	 * setTimeLimit sets the average time per move. The turns in the middle of the game get more
+	 * than that, the ones near the start and the end less (see TimeManager).
+	 * @param millis (long) the average time per move in milliseconds
+	 */
+	public void setTimeLimit(long millis){
+		clock.setAverageMillis(millis);
+	}
+	
+	public long getTimeLimit(){
+		return clock.getAverageMillis();
+	}
+	
+	/**
+	 * setNodeLimit makes every thread stop after searching the given number of nodes, ignoring the
+	 * time limit. The last finished iteration's move is played, like when the time runs out, but
+	 * the search doesn't depend on the speed of the machine. The endgame solver isn't used.
+	 * @param nodeLimit (long) the number of nodes per move, 0 to use the time limit again
+	 */
+	public void setNodeLimit(long nodeLimit){
+		this.nodeLimit = nodeLimit;
+		for (AlphaBetaAI helper : helpers){
+			helper.nodeLimit = nodeLimit;
+		}
+	}
+	
+	/**
+	 * setSearchOptions turns principal variation search and aspiration windows on or off, to
+	 * compare the number of nodes searched with and without them. Both are on by default.
+	 * @param pvsEnabled (boolean) search every move but the first with a null window
+	 * @param aspirationEnabled (boolean) start every iteration with a narrow window around the last score
+	 */
+	public void setSearchOptions(boolean pvsEnabled, boolean aspirationEnabled){
+		this.pvsEnabled = pvsEnabled;
+		this.aspirationEnabled = aspirationEnabled;
+		for (AlphaBetaAI helper : helpers){
+			helper.pvsEnabled = pvsEnabled;
+			helper.aspirationEnabled = aspirationEnabled;
+		}
+	}
+	
+	/**
+	 * setPondering turns thinking during the human's turn on or off. See startPondering.
+	 * @param ponderEnabled (boolean) true to ponder
+	 */
+	public void setPondering(boolean ponderEnabled){
+		this.ponderEnabled = ponderEnabled;
+	}
+	
+	/**
+	 * setOpeningBook gives the AI a book of precomputed moves. A book made for another board size is ignored.
+	 * @param book (OpeningBook) the book, or null to always search
+	 */
+	public void setOpeningBook(OpeningBook book){
+		if (book != null && !book.matches(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size))
+			book = null;
+		this.book = book;
+	}
+	
+	/**
+	 * clearSearchMemory forgets everything the earlier searches learned: the transposition table and
+	 * the move ordering history of every thread. The next search then only depends on its position,
+	 * e.g. when unrelated positions are analyzed one after the other.
+	 */
+	public void clearSearchMemory(){
+		table.clear();
+		orderer.clearHistory();
+		for (AlphaBetaAI helper : helpers){
+			helper.orderer.clearHistory();
+		}
+	}
+	
+	/** @return (TranspositionTable) the table shared by all the search threads, e.g. to save it with a game **/
+	public TranspositionTable getTranspositionTable(){
+		return table;
+	}
+	
+	/** @return (long) the number of nodes visited by all threads in the last search **/
+	public long getNodes(){
+		long total = nodes;
+		for (AlphaBetaAI helper : helpers){
+			total += helper.nodes;
+		}
+		return total;
+	}
+	
+	/** @return (int) the deepest iteration finished in the last search **/
+	public int getCompletedDepth(){
+		return completedDepth;
+	}
+	
+	/**
+	 * getNodesPerDepth gets how many nodes each iteration of the main thread's last search took.
+	 * @return (long[]) index d is the number of nodes of the depth d iteration, up to getCompletedDepth
+	 */
+	public long[] getNodesPerDepth(){
+		return Arrays.copyOf(nodesPerDepth, completedDepth + 1);
+	}
+	
+	/** @return (int[]) the principal variation of the main thread's deepest finished iteration, starting with the chosen move **/
+	public int[] getPrincipalVariation(){
+		return Arrays.copyOf(lastPv, lastPvLength);
+	}
+	
+	/** @return (int) the utility value of the move chosen by the main thread's deepest finished iteration **/
+	public int getBestScore(){
+		return bestScore;
+	}
+	
+	@Override
+	public synchronized void dispose(){
+		super.dispose();
+		shutdownPool();
+		helpers.clear();
+		threads = 1;
+	}
+	
+	@Override
+	protected void stopSearch(){
+		stop.set(true);
+		if (endgame != null)
+			endgame.stop();
+	}
+	
+	private void shutdownPool(){
+		if (pool != null){
+			stop.set(true);
+			pool.shutdownNow();
+			awaitStop(pool);
+			pool = null;
+		}
+	}
+	
 	@Override
 	public void getNextMove(){
 		turn = true; // variable inherited from AIModule class
-		int max = Integer.MIN_VALUE; // "Negative infinity"
-		int alpha = Integer.MIN_VALUE; // The maximum lower bound of the possible utility values
-		int beta = Integer.MAX_VALUE; // The minimum upper bound of the possible utility values
-		final long startTime = System.currentTimeMillis(); // start the timer of the AI's turn
-		float chosenMove = 0; // y coordinate of the column that the AI will make its move in
-		plyLimit = 2; // AI will initially look 2 levels down from the game tree's root
+		int col = chooseMove(game.copyBoard());
+		game.makeMoveInColumn(col);
+		turn = false;
+	}// end getNextMove
+	
+	/**
+	 * chooseMove searches the given position and returns the best column for the player to move.
+	 * The position is only used for the simulation, so this can be called without a GameScreen.
+	 * When more than one thread is set, the helper AIs search their own copy of the position at
+	 * the same time, and the move of the deepest finished iteration is returned.
+	 * Positions in the opening book are answered from the book without searching.
+	 * @param position (Board) the position to search, must have at least one playable column
+	 * @return (int) the column index of the chosen move
+	 */
+	@Override
+	public int chooseMove(Board position){
+		long start = System.nanoTime();
+		int move = think(position);
+		reportSearch(collectStats(move, System.nanoTime() - start));
+		return move;
+	}// end chooseMove
+	
+	/**
+	 * think does the work of chooseMove and leaves where the move came from in moveSource.
+	 * @param position (Board) the position to search, must have at least one playable column
+	 * @return (int) the column index of the chosen move
+	 */
+	private int think(Board position){
+		clock.startTurn(position); // start the timer of the AI's turn
+		stop.set(false);
+		pondering = false;
+		nodes = 0;
+		tableProbes = 0;
+		tableHits = 0;
+		orderer.resetCounters();
 		
-		// perform Iterative Deepening Search
-		while (!terminate(startTime)){ // terminate is an AIModule method
-			// reset values when starting search from the root again
-			max = Integer.MIN_VALUE;
-			alpha = Integer.MIN_VALUE;
-			beta = Integer.MAX_VALUE;
-			
-			// get the utility value of each successor and find the max value
-			for (int i = 0; i < SettingsScreen.columns; ++i){
-				if(terminate(startTime)){
-					plyLimit--;
-					game.makeMove(chosenMove);
-					turn = false;
-					return;
+		// answer right away if the position is in the book
+		moveSource = SearchStats.Source.BOOK;
+		int bookMove = probeBook(position);
+		if (bookMove != -1)
+			return bookMove;
+		
+		// answer right away if the human's move was pondered deep enough
+		moveSource = SearchStats.Source.PONDER;
+		int ponderedMove = takePonderedReply(position);
+		if (ponderedMove != -1)
+			return ponderedMove;
+		
+		// play perfectly if the endgame can be solved quickly
+		moveSource = SearchStats.Source.SOLVER;
+		int solvedMove = solveEndgame(position);
+		if (solvedMove != -1)
+			return solvedMove;
+		
+		moveSource = SearchStats.Source.SEARCH;
+		if (threads == 1){
+			int move = search(position, 2);
+			lastTurnDepth = completedDepth;
+			return move;
+		}
+		
+		// start the helpers, every other helper starts one ply deeper so they don't all search the same depth
+		List<Future<?>> running = new ArrayList<Future<?>>(helpers.size());
+		for (int i = 0; i < helpers.size(); ++i){
+			final AlphaBetaAI helper = helpers.get(i);
+			final Board helperBoard = position.copy();
+			final int startPly = 2 + (i + 1) % 2;
+			helper.clock.follow(clock);
+			running.add(pool.submit(new Runnable(){
+				public void run(){
+					helper.search(helperBoard, startPly);
 				}
+			}));
+		}
+		
+		search(position, 2);
+		
+		// the main search is done, tell the helpers to stop and wait for them
+		stop.set(true);
+		for (Future<?> future : running){
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				// a helper crashed, don't pass the move off as a parallel search
+				throw new IllegalStateException("AI helper thread failed", e.getCause());
+			}
+		}
+		
+		// use the deepest finished iteration, the main search wins ties
+		int move = bestMove;
+		int depth = completedDepth;
+		for (AlphaBetaAI helper : helpers){
+			if (helper.completedDepth > depth && helper.bestMove != -1){
+				depth = helper.completedDepth;
+				move = helper.bestMove;
+			}
+		}
+		lastTurnDepth = depth;
+		return move;
+	}// end think
+	
+	/**
+	 * collectStats gathers the counters of the last move from this AI and its helpers.
+	 * @param move (int) the column chosen
+	 * @param nanos (long) the time taken
+	 * @return (SearchStats) the statistics of the move
+	 */
+	private SearchStats collectStats(int move, long nanos){
+		long probes = tableProbes, hits = tableHits;
+		long cutoffs = orderer.getCutoffs(), firstMoveCutoffs = orderer.getFirstMoveCutoffs();
+		for (AlphaBetaAI helper : helpers){
+			probes += helper.tableProbes;
+			hits += helper.tableHits;
+			cutoffs += helper.orderer.getCutoffs();
+			firstMoveCutoffs += helper.orderer.getFirstMoveCutoffs();
+		}
+		
+		// the branching factor b that a uniform tree of the same depth and nodes would have, nodes = b^depth.
+		// The ratio between iterations isn't used since it swings between odd and even depths and
+		// gets tiny when the table already knows the early iterations.
+		int depth = moveSource == SearchStats.Source.SEARCH ? lastTurnDepth : completedDepth;
+		long totalNodes = getNodes();
+		double branchingFactor = 0;
+		if (moveSource == SearchStats.Source.SEARCH && depth > 0 && totalNodes > 0)
+			branchingFactor = Math.pow(totalNodes, 1.0 / depth);
+		
+		return new SearchStats(moveSource, move, depth, totalNodes, nanos, probes, hits, cutoffs, firstMoveCutoffs, branchingFactor);
+	}
+	
+	/**
+	 * startPondering searches the replies to every human move on the AI's search thread until the
+	 * human moves (requestMove) or the search is cancelled. It does nothing if pondering is off.
+	 * @param snapshot (Board) a copy of the position with the human to move
+	 */
+	@Override
+	public void startPondering(final Board snapshot){
+		if (!ponderEnabled || snapshot.isGameOver())
+			return;
+		
+		runInBackground(new Callable<Integer>(){
+			public Integer call(){
+				stop.set(false);
+				pondering = true;
+				try {
+					ponder(snapshot);
+				} finally {
+					pondering = false;
+				}
+				return -1;
+			}
+		});
+	}
+	
+	/**
+	 * ponder searches the AI's reply to each human move, one more level deeper every round, until
+	 * it's stopped or every reply was searched to the end of the game. The best reply and depth for
+	 * each human move are kept for takePonderedReply, and the results fill the transposition table.
+	 * @param position (Board) the position with the human to move
+	 */
+	private void ponder(Board position){
+		startSearch(position);
+		Arrays.fill(ponderHash, 0);
+		Arrays.fill(ponderReply, -1);
+		Arrays.fill(ponderDepth, 0);
+		int cells = board.getRows() * board.getColumns();
+		
+		for (int depth = 2; ; ++depth){
+			boolean deeper = false; // did any reply get searched deeper this round?
+			
+			for (int col = 0; col < SettingsScreen.columns; ++col){
+				if (!board.canPlay(col))
+					continue;
 				
-				// make sure the column isn't full. null for that column means that it's full.
-				if (game.getFirstCellUnoccupiedCoord(i) != null){
-					float colX = game.getFirstCellUnoccupiedCoord(i).x;
-					game.makeMove(colX);
-					colValues.set(i,minVal(startTime, 1, alpha, beta));
-					
-					// update the max value
-					if (colValues.get(i) > max){
-						max = colValues.get(i);
+				play(col); // the human's move
+				if (!board.isGameOver() && depth <= cells - board.getMoveCount() && depth <= maxPly){
+					ponderHash[col] = board.getHash();
+					orderer.clearKillers();
+					plyLimit = depth;
+					lastPvLength = 0; // the last line was for another position
+					int reply = searchRoot(ponderReply[col], Integer.MIN_VALUE, Integer.MAX_VALUE);
+					if (reply == -1){ // the human moved or the game was left
+						undo();
+						return;
 					}
-					game.unMakeMove();
-				}				
-			} // finished search
+					ponderReply[col] = reply;
+					ponderDepth[col] = depth;
+					deeper = true;
+				}
+				undo();
+			}
+			
+			if (!deeper)
+				return;
+		}
+	}
+	
+	/**
+	 * probeBook looks up the position in the opening book.
+	 * @param position (Board) the position to look up
+	 * @return (int) the book move, or -1 if there's no book, the position isn't in it or the move can't be played
+	 */
+	private int probeBook(Board position){
+		if (book == null)
+			return -1;
+		
+		int entry = book.find(position.getHash());
+		if (entry == -1 || !position.canPlay(book.moveAt(entry)))
+			return -1;
+		
+		nodes = 0;
+		completedDepth = 0;
+		bestMove = book.moveAt(entry);
+		bestScore = book.scoreAt(entry);
+		return bestMove;
+	}
+	
+	/**
+	 * solveEndgame tries to prove the result of the position with the Solver, if there are few
+	 * enough empty cells left. It isn't used with a depth or node limit, so those searches stay repeatable.
+	 * @param position (Board) the position to solve
+	 * @return (int) the perfect move, or -1 if the normal search should run
+	 */
+	private int solveEndgame(Board position){
+		int empty = position.getRows() * position.getColumns() - position.getMoveCount();
+		if (endgame == null || depthLimit != 0 || nodeLimit != 0 || empty > ENDGAME_CELLS)
+			return -1;
+		
+		int score = endgame.analyze(position, SOLVER_TIME_LIMIT);
+		if (score == Solver.UNKNOWN || stop.get())
+			return -1;
+		
+		// the solver's score is for the player to move, the utility value is positive for yellow
+		int outcome = Solver.getOutcome(score);
+		if (position.getCurrentPlayer() == Board.RED)
+			outcome = -outcome;
+		nodes = endgame.getNodes();
+		completedDepth = empty;
+		bestMove = endgame.getBestMove();
+		bestScore = outcome > 0 ? Integer.MAX_VALUE : outcome < 0 ? Integer.MIN_VALUE : 0;
+		return bestMove;
+	}
+	
+	/**
+	 * takePonderedReply checks if the position is one that was pondered, and if its reply was
+	 * searched at least as deep as the last real search got. The pondered results are used up.
+	 * @param position (Board) the position after the human's move
+	 * @return (int) the pondered reply, or -1 if the normal search should run
+	 */
+	private int takePonderedReply(Board position){
+		int reply = -1;
+		
+		for (int col = 0; col < ponderHash.length; ++col){
+			if (ponderReply[col] != -1 && ponderHash[col] == position.getHash() && ponderDepth[col] >= lastTurnDepth){
+				reply = ponderReply[col];
+				completedDepth = ponderDepth[col];
+			}
+		}
+		
+		Arrays.fill(ponderReply, -1);
+		return reply;
+	}
+	
+	/**
+	 * search runs the iterative deepening search of one thread.
+	 * @param position (Board) the position to search, only used by this thread
+	 * @param startPly (int) the depth of the first iteration
+	 * @return (int) the best column of the deepest finished iteration
+	 */
+	private int search(Board position, int startPly){
+		startSearch(position);
+		int chosenMove = -1; // the column that the AI will make its move in
+		int bestCol; // best column of the current iteration
+		plyLimit = startPly; // AI will initially look 2 levels down from the game tree's root
+		
+		// fall back on the first open column if not even one search finishes
+		for (int i = 0; i < SettingsScreen.columns && chosenMove == -1; ++i){
+			if (board.canPlay(i))
+				chosenMove = i;
+		}
+		
+		bestMove = chosenMove;
+		
+		// perform Iterative Deepening Search
+		int emptyCells = board.getRows() * board.getColumns() - board.getMoveCount();
+		while (!outOfTime() && (depthLimit == 0 || plyLimit <= depthLimit)){
+			// an iteration deeper than the empty cells can't see anything the last one didn't
+			if ((plyLimit > emptyCells && completedDepth > 0) || plyLimit > maxPly)
+				break;
+			// without a depth or node limit, only start an iteration that should finish in time
+			if (depthLimit == 0 && nodeLimit == 0 && !clock.shouldStartIteration(plyLimit))
+				break;
+			
+			long iterationStart = nodes;
+			bestCol = searchIteration(chosenMove);
+			nodesPerDepth[plyLimit] = nodes - iterationStart;
+			if (bestCol == -1){ // stopped before the end, keep the last finished iteration's move
+				clock.iterationStopped(plyLimit);
+				plyLimit--;
+				return chosenMove;
+			}
+			clock.iterationFinished(plyLimit, nodesPerDepth[plyLimit]);
+			
+			// record the chosen move so far
+			chosenMove = bestCol;
+			bestMove = bestCol;
+			bestScore = rootValue;
+			scorePerDepth[plyLimit] = rootValue;
+			completedDepth = plyLimit;
+			lastPvLength = pvLength[0];
+			System.arraycopy(pv[0], 0, lastPv, 0, lastPvLength);
 			
 			// still have time, increase search level
 			plyLimit += 1;
+		}
+		return chosenMove;
+	}// end search
+	
+	/**
+	 * startSearch gets this AI ready to search a new position.
+	 * @param position (Board) the position to search, only used by this thread
+	 */
+	private void startSearch(Board position){
+		board = position;
+		evaluator.reset(board);
+		timeUp = false;
+		nodes = 0;
+		tableProbes = 0;
+		tableHits = 0;
+		completedDepth = 0;
+		orderer.clearKillers();
+		orderer.ageHistory();
+		orderer.resetCounters();
+		lastPvLength = 0;
+		Arrays.fill(nodesPerDepth, 0);
+		Arrays.fill(scorePerDepth, Integer.MIN_VALUE); // no score yet, MIN_VALUE means a full window
+	}
+	
+	/**
+	 * searchIteration runs one iteration of the search. Once there is a score from two iterations
+	 * ago, the window starts narrow around it and is widened on the side the score fell out of,
+	 * until the score lands inside it.
+	 * @param firstMove (int) the column to try first, the best move of the previous iteration
+	 * @return (int) the best column, or -1 if the search had to stop before it was finished
+	 */
+	private int searchIteration(int firstMove){
+		// odd and even depths end on different players' moves, so their scores swing back and
+		// forth. The score of two iterations ago is a better guess than the last one.
+		int center = plyLimit >= 2 ? scorePerDepth[plyLimit - 2] : Integer.MIN_VALUE;
+		if (!aspirationEnabled || center == Integer.MAX_VALUE || center == Integer.MIN_VALUE)
+			return searchRoot(firstMove, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		
+		long delta = ASPIRATION_WINDOW;
+		long alpha = (long) center - delta;
+		long beta = (long) center + delta;
+		while (true){
+			int a = (int) Math.max(alpha, Integer.MIN_VALUE);
+			int b = (int) Math.min(beta, Integer.MAX_VALUE);
+			int bestCol = searchRoot(firstMove, a, b);
+			if (bestCol == -1)
+				return -1;
 			
-			// record the chosen move so far
-			float colX = game.getFirstCellUnoccupiedCoord(colValues.indexOf(max)).x;
-			chosenMove = colX;
+			// widen the side the score fell out of and search again
+			if (rootValue <= a && a != Integer.MIN_VALUE)
+				alpha = (long) rootValue - delta;
+			else if (rootValue >= b && b != Integer.MAX_VALUE)
+				beta = (long) rootValue + delta;
+			else
+				return bestCol;
+			delta *= 2;
+			firstMove = bestCol;
 		}
-		game.makeMove(chosenMove);
-		turn = false;
-	}// end getNextMove
+	}
+	
+	/**
+	 * searchRoot gets the utility value of every move from the current board, searching plyLimit
+	 * levels down. The values are only exact inside (alpha, beta). The root is a "MAX" node when
+	 * yellow is to move and a "MIN" node when red is, so the AI can play either color.
+	 * @param firstMove (int) the column to try first, usually the best move of the previous iteration
+	 * @param alpha (int) the lower end of the window
+	 * @param beta (int) the upper end of the window
+	 * @return (int) the best column, or -1 if the search had to stop before it was finished. Its value is left in rootValue.
+	 */
+	private int searchRoot(int firstMove, int alpha, int beta){
+		boolean maximize = board.getCurrentPlayer() == Board.YELLOW;
+		int best = maximize ? Integer.MIN_VALUE : Integer.MAX_VALUE; // the worst value for the player to move
+		int value;
+		int bestCol = -1;
+		pvLength[0] = 0;
+		
+		// get the utility value of each successor and find the best value,
+		// starting with the best move of the previous iteration
+		int moveCount = orderer.orderMoves(board, 0, firstMove);
+		int[] moves = orderer.getMoves(0);
+		if (sparse)
+			moveCount = pruneMoves(moves, moveCount);
+		followPv = lastPvLength > 0 && moves[0] == lastPv[0];
+		for (int k = 0; k < moveCount; ++k){
+			if(outOfTime())
+				return -1;
+			
+			int i = moves[k];
+			play(i);
+			if (maximize)
+				value = searchMaxRootMove(k, alpha, beta);
+			else
+				value = searchMinRootMove(k, alpha, beta);
+			undo();
+			followPv = false;
+			if (timeUp)
+				return -1;
+			colValues.set(i, value);
+			
+			// update the best value
+			if ((maximize ? value > best : value < best) || bestCol == -1){
+				best = value;
+				bestCol = i;
+				updatePv(0, i);
+			}
+			if (maximize && best > alpha)
+				alpha = best;
+			else if (!maximize && best < beta)
+				beta = best;
+			if (alpha >= beta)
+				break;
+		} // finished search
+		
+		rootValue = best;
+		return bestCol;
+	}
+	
+	/**
+	 * searchMaxRootMove gets the value of a yellow root move that was just played.
+	 * @param k (int) the index of the move in the move order
+	 * @param alpha (int) the lower end of the root's window
+	 * @param beta (int) the upper end of the root's window
+	 * @return (int) the value of the move
+	 */
+	private int searchMaxRootMove(int k, int alpha, int beta){
+		if (k == 0 || !pvsEnabled)
+			return minVal(1, alpha, beta);
+		
+		// prove the move is no better than alpha, search it again if it is
+		int value = minVal(1, alpha, alpha + 1);
+		if (value > alpha && value < beta && !timeUp)
+			value = minVal(1, alpha, beta);
+		return value;
+	}
+	
+	/**
+	 * searchMinRootMove gets the value of a red root move that was just played.
+	 * @param k (int) the index of the move in the move order
+	 * @param alpha (int) the lower end of the root's window
+	 * @param beta (int) the upper end of the root's window
+	 * @return (int) the value of the move
+	 */
+	private int searchMinRootMove(int k, int alpha, int beta){
+		if (k == 0 || !pvsEnabled)
+			return maxVal(1, alpha, beta);
+		
+		// prove the move is no better for red than beta, search it again if it is
+		int value = maxVal(1, beta - 1, beta);
+		if (value < beta && value > alpha && !timeUp)
+			value = maxVal(1, alpha, beta);
+		return value;
+	}
+	
+	/**
+	 * pruneMoves keeps only the moves worth searching on a large board, in the same order:
+	 * a move that wins right away if there is one, otherwise the moves that stop the opponent
+	 * from winning right away if there are any, otherwise the moves that land next to a disc
+	 * (sharing a window with it). Moves far from every disc can't make or stop a threat soon.
+	 * @param moves (int[]) the ordered move list, changed in place
+	 * @param count (int) the number of moves in the list
+	 * @return (int) the number of moves left in the list, at least 1
+	 */
+	private int pruneMoves(int[] moves, int count){
+		int player = board.getCurrentPlayer();
+		int opponent = board.getLastPlayer();
+		int kept = 0, blocks = 0;
+		
+		// winning and blocking moves are always next to a disc, so only those moves are looked at
+		for (int k = 0; k < count; ++k){
+			int col = moves[k];
+			int row = board.getHeight(col);
+			if (!evaluator.isCandidate(row, col))
+				continue;
+			if (evaluator.winsAt(row, col, player)){
+				moves[0] = col;
+				return 1;
+			}
+			if (evaluator.winsAt(row, col, opponent))
+				blocks++;
+			moves[kept++] = col;
+		}
+		
+		if (blocks > 0){
+			int blocking = 0;
+			for (int k = 0; k < kept; ++k){
+				int col = moves[k];
+				if (evaluator.winsAt(board.getHeight(col), col, opponent))
+					moves[blocking++] = col;
+			}
+			return blocking;
+		}
+		
+		// nothing is near a disc on an empty board, try the first move (the center column) only
+		return kept == 0 ? 1 : kept;
+	}
+	
+	/**
+	 * pvMove gets the move to search first at a node: the last iteration's principal variation
+	 * move while the search is still following that line, otherwise the transposition table's move.
+	 * @param ply (int) the level of the node in the game tree
+	 * @param ttMove (int) the best move from the transposition table, or TranspositionTable.NO_MOVE
+	 * @return (int) the move to search first
+	 */
+	private int pvMove(int ply, int ttMove){
+		if (followPv && ply < lastPvLength)
+			return lastPv[ply];
+		followPv = false;
+		return ttMove;
+	}
+	
+	/**
+	 * updatePv makes the move followed by the child's principal variation the principal variation of the ply.
+	 * @param ply (int) the level of the node in the game tree
+	 * @param col (int) the best move of the node
+	 */
+	private void updatePv(int ply, int col){
+		int[] line = pv[ply];
+		line[ply] = col;
+		int length = pvLength[ply + 1];
+		if (length > ply + 1)
+			System.arraycopy(pv[ply + 1], ply + 1, line, ply + 1, length - ply - 1);
+		pvLength[ply] = Math.max(length, ply + 1);
+	}
+	
+	/**
+	 * outOfTime checks if this thread should stop searching: either another thread asked all of
+	 * them to stop, the search was cancelled, the node limit is reached or the hard time limit of
+	 * the turn is up. The time limit isn't used when a depth or node limit is set or while
+	 * pondering. The clock is only read every few calls, so this can be called at every node.
+	 * @return (boolean) true if the search should stop
+	 */
+	private boolean outOfTime(){
+		if (nodeLimit != 0 && !pondering)
+			return nodes >= nodeLimit || stop.get() || Thread.currentThread().isInterrupted();
+		return stop.get() || Thread.currentThread().isInterrupted()
+				|| (depthLimit == 0 && !pondering && clock.isTimeUp());
+	}
+	
+	/** @return (MoveOrderer) the move ordering of this AI, with the cutoff counters of the last move **/
+	public MoveOrderer getMoveOrderer(){
+		return orderer;
+	}
 	
 	/**
 	 * minVal gets the minimum value of its successors (each possible move). In other words,
 	 * this method basically gets the simulated move of the human opponent. As the "MIN"
 	 * player, it will try to minimize the AI's utility value.
-	 * @param startTime (long) the start time of the AI's turn
 	 * @param ply (int) the current level in the game tree
 	 * @param alpha (int) The maximum lower bound of the possible utility values of this node
 	 * @param beta (int) The minimum upper bound of the possible utility values of this node
 	 * @return (int) the minimum utility value
 	 */
-	private int minVal(long startTime, int ply, int alpha, int beta){
+	private int minVal(int ply, int alpha, int beta){
 		int min = Integer.MAX_VALUE; // positive infinity
 		int value; // utility value
+		int bestCol = TranspositionTable.NO_MOVE; // column of the min value
+		final int alphaOrig = alpha, betaOrig = beta; // the window this node was called with
+		nodes++;
+		pvLength[ply] = ply;
 		
 		// check if MAX made a winning move or a tied game
-		if (game.isGameOver())
-		{
-			if (game.getWinner() == 0)
-				return 0;
-			else
-				return Integer.MAX_VALUE;
-		}
+		if (board.getWinner() == Board.YELLOW)
+			return Integer.MAX_VALUE;
+		if (board.isFull())
+			return 0;
 
 		if (ply == plyLimit) // "terminal state"
 			return evalfunc();
 		
-		// get the utility value of each successor and get the min value
-		for (int i = 0; i < SettingsScreen.columns; ++i)
+		// use the stored result if this position was already searched at least as deep
+		long entry = table.probe(board.getHash());
+		tableProbes++;
+		if (entry != 0)
+			tableHits++;
+		int ttMove = entry != 0 ? TranspositionTable.moveOf(entry) : TranspositionTable.NO_MOVE;
+		int firstMove = pvMove(ply, ttMove);
+		if (entry != 0 && TranspositionTable.depthOf(entry) >= plyLimit - ply){
+			int score = TranspositionTable.scoreOf(entry);
+			int bound = TranspositionTable.boundOf(entry);
+			if (bound == TranspositionTable.EXACT)
+				return score;
+			else if (bound == TranspositionTable.LOWER && score > alpha)
+				alpha = score;
+			else if (bound == TranspositionTable.UPPER && score < beta)
+				beta = score;
+			if (alpha >= beta)
+				return score;
+		}
+		
+		// get the utility value of each successor and get the min value, best moves first
+		int moveCount = orderer.orderMoves(board, ply, firstMove);
+		int[] moves = orderer.getMoves(ply);
+		if (sparse)
+			moveCount = pruneMoves(moves, moveCount);
+		for (int k = 0; k < moveCount; ++k)
 		{
-			if (terminate(startTime))
+			if (outOfTime()){
+				timeUp = true;
 				break;
+			}
 			
-			// make sure the column isn't full. null for that column means that it's full.
-			if (game.getFirstCellUnoccupiedCoord(i) != null)
+			int i = moves[k];
+			play(i);
+			if (k == 0 || !pvsEnabled)
+				value = maxVal(ply+1, alpha, beta);
+			else {
+				// prove the move is no better for MIN than beta, search it again if it is
+				value = maxVal(ply+1, beta - 1, beta);
+				if (value < beta && value > alpha && !timeUp)
+					value = maxVal(ply+1, alpha, beta);
+			}
+			undo();
+			followPv = false;
+			
+			// update the min value
+			if (value < min)
 			{
-				float colX = game.getFirstCellUnoccupiedCoord(i).x;
-				game.makeMove(colX);
-				value = maxVal(startTime, ply+1, alpha, beta);
-				game.unMakeMove();
-				
-				// update the min value
-				if (value < min)
-				{
-					min = value;
+				min = value;
+				bestCol = i;
+				if (value < beta){
 					beta = value;
+					if (value > alpha)
+						updatePv(ply, i);
 				}
-				
-				// prune the rest of the successors if alpha > beta
-				if (alpha > beta)
-					return beta;
+			}
+			
+			// prune the rest of the successors if alpha >= beta
+			if (alpha >= beta){
+				orderer.recordCutoff(board, ply, i, plyLimit - ply, k);
+				break;
 			}
 		}
+		
+		if (!timeUp)
+			storeResult(ply, min, alphaOrig, betaOrig, bestCol);
 		return min;
 	} // End minVal
 	
@@ -152,59 +1056,119 @@ public class AlphaBetaAI extends AIModule{
 	 * maxVal gets the maximum value of its successors (each possible move). In other words,
 	 * this method basically gets the simulated move of the AI. As the "MAX" player, it will 
 	 * try to maximize the AI's utility value.
-	 * @param startTime (long) the start time of the AI's turn
 	 * @param ply (int) the current level in the game tree
 	 * @param alpha (int) The maximum lower bound of the possible utility values of this node
 	 * @param beta (int) The minimum upper bound of the possible utility values of this node
 	 * @return (int) the maximum utility value
 	 */
-	private int maxVal(long startTime, int ply, int alpha, int beta){
-		int max = Integer.MIN_VALUE; // positive infinity
+	private int maxVal(int ply, int alpha, int beta){
+		int max = Integer.MIN_VALUE; // negative infinity
 		int value; // utility value
+		int bestCol = TranspositionTable.NO_MOVE; // column of the max value
+		final int alphaOrig = alpha, betaOrig = beta; // the window this node was called with
+		nodes++;
+		pvLength[ply] = ply;
 		
 		// check if MIN made a winning move or a tied game
-		if (game.isGameOver())
-		{
-			if (game.getWinner() == 0)
-				return 0;
-			else 
-				return Integer.MIN_VALUE;
-		}
+		if (board.getWinner() == Board.RED)
+			return Integer.MIN_VALUE;
+		if (board.isFull())
+			return 0;
 
 		if (ply == plyLimit) // "terminal state"
 			return evalfunc();
 		
-		// get the utility value of each successor and get the max value
-		for (int i = 0; i < SettingsScreen.columns; ++i)
+		// use the stored result if this position was already searched at least as deep
+		long entry = table.probe(board.getHash());
+		tableProbes++;
+		if (entry != 0)
+			tableHits++;
+		int ttMove = entry != 0 ? TranspositionTable.moveOf(entry) : TranspositionTable.NO_MOVE;
+		int firstMove = pvMove(ply, ttMove);
+		if (entry != 0 && TranspositionTable.depthOf(entry) >= plyLimit - ply){
+			int score = TranspositionTable.scoreOf(entry);
+			int bound = TranspositionTable.boundOf(entry);
+			if (bound == TranspositionTable.EXACT)
+				return score;
+			else if (bound == TranspositionTable.LOWER && score > alpha)
+				alpha = score;
+			else if (bound == TranspositionTable.UPPER && score < beta)
+				beta = score;
+			if (alpha >= beta)
+				return score;
+		}
+		
+		// get the utility value of each successor and get the max value, best moves first
+		int moveCount = orderer.orderMoves(board, ply, firstMove);
+		int[] moves = orderer.getMoves(ply);
+		if (sparse)
+			moveCount = pruneMoves(moves, moveCount);
+		for (int k = 0; k < moveCount; ++k)
 		{
-			if (terminate(startTime))
+			if (outOfTime()){
+				timeUp = true;
 				break;
+			}
 			
-			// make sure the column isn't full. null for that column means that it's full.
-			if (game.getFirstCellUnoccupiedCoord(i) != null)
+			int i = moves[k];
+			play(i);
+			if (k == 0 || !pvsEnabled)
+				value = minVal(ply+1, alpha, beta);
+			else {
+				// prove the move is no better for MAX than alpha, search it again if it is
+				value = minVal(ply+1, alpha, alpha + 1);
+				if (value > alpha && value < beta && !timeUp)
+					value = minVal(ply+1, alpha, beta);
+			}
+			undo();
+			followPv = false;
+			
+			// update the max value
+			if (value > max)
 			{
-				float colX = game.getFirstCellUnoccupiedCoord(i).x;
-				game.makeMove(colX);
-				value = minVal(startTime, ply+1, alpha, beta);
-				game.unMakeMove();
-				
-				// update the max value
-				if (value > max)
-				{
-					max = value; 
+				max = value;
+				bestCol = i;
+				if (value > alpha){
 					alpha = value;
+					if (value < beta)
+						updatePv(ply, i);
 				}
-				// prune the rest of the successors if alpha > beta
-				if (alpha > beta)
-					return alpha;
+			}
+			
+			// prune the rest of the successors if alpha >= beta
+			if (alpha >= beta){
+				orderer.recordCutoff(board, ply, i, plyLimit - ply, k);
+				break;
 			}
 		}
-
+		
+		if (!timeUp)
+			storeResult(ply, max, alphaOrig, betaOrig, bestCol);
 		return max;
 	} // End maxVal
 	
 	/**
-	 * evalfunc calculates the utility value of the current state of the game.<br>
+	 * storeResult saves the value of a finished node in the transposition table. A value outside
+	 * the node's (alpha, beta) window only bounds the real value, since the search was cut short.
+	 * @param ply (int) the level of the node in the game tree
+	 * @param value (int) the value returned by the node
+	 * @param alpha (int) the alpha the node was called with
+	 * @param beta (int) the beta the node was called with
+	 * @param bestCol (int) the column that gave the value
+	 */
+	private void storeResult(int ply, int value, int alpha, int beta, int bestCol){
+		int bound;
+		if (value <= alpha)
+			bound = TranspositionTable.UPPER;
+		else if (value >= beta)
+			bound = TranspositionTable.LOWER;
+		else
+			bound = TranspositionTable.EXACT;
+		table.store(board.getHash(), plyLimit - ply, value, bound, bestCol);
+	}
+	
+	/**
+	 * evalfunc gets the utility value of the current state of the game.<br>
 	 * <b>a</b> is an array of the number of each possible connects for the AI.<br>
 	 * <b>b</b> is an array of the number of each possible connects for the opponent.<br>
 	 * The higher the number of connects, the bigger the weight in order to favor wins.
@@ -218,347 +1182,32 @@ public class AlphaBetaAI extends AIModule{
 	 * b[1] is the number of 2 red coins and 2 empty spaces in a row.<br>
 	 * b[0] is the number of 1 red coin and 3 empty spaces in a row.<br>
 	 * 
+	 * The value is kept up to date by the Evaluator on every simulated move, so this doesn't
+	 * look at the board at all.
+	 * 
 	 * @return (int) the utility value of the current state of the game
+	 * @see Evaluator
 	 */
 	private int evalfunc(){
-		int[] a = new int[SettingsScreen.win_size-1];
-		int[] b = new int[SettingsScreen.win_size-1];
-		
-		int a_value=0, b_value=0; // sums of the values in the respective arrays multiplied by weights
-		int value = 0; // utility value to be calculated
-		
-		int row = 0; // index of rows to iterate through
-		int lastrow = 0; // index of the first row without any coin pieces
-		float firstOpenRowY = Integer.MAX_VALUE; // y coordinate of first open row
-		float lastRowY = Integer.MIN_VALUE; // y coordinate of last row
-
-		// find first open row's y coordinate
-		for (int i = 0; i < SettingsScreen.columns; ++i){
-			if (game.getFirstCellUnoccupiedCoord(i) != null){
-				if (game.getFirstCellUnoccupiedCoord(i).y < firstOpenRowY){
-					firstOpenRowY = game.getFirstCellUnoccupiedCoord(i).y;
-				}
-			}
-		}
-		
-		firstOpenRow = game.getRowIndex(firstOpenRowY);
-		row = firstOpenRow;
-		
-		// find the last row's y coordinate
-		for (int k = 0; k < SettingsScreen.columns; ++k){
-			if (game.getFirstCellUnoccupiedCoord(k) != null){
-				if (game.getFirstCellUnoccupiedCoord(k).y > lastRowY)
-					lastRowY = game.getFirstCellUnoccupiedCoord(k).y;
-			}
-		}
-		
-		lastrow = game.getRowIndex(lastRowY);
-
-		// goes through each row starting from the first open row up to the last row with coin pieces
-		// to update a and b arrays
-		for (; row < lastrow; ++row){
-			getVerticals(a, b, row);
-			getDiagonals(a, b, row);
-			getHorizontals(a, b, row);
-		}
-		
-		// get sums for a_value and b_value
-		for (int i = 0; i < SettingsScreen.win_size-1; ++i){
-			a_value += a[i] * Math.pow((i+1), 5);
-			b_value += b[i] * Math.pow((i+1), 5);
-		}
-		value = a_value - b_value;
-
-		return value;
+		return evaluator.evaluate();
 	} //end evalFunc
 	
 	/**
-	 * updateABList updates the elements of the arrays a and b according to the number of connects
-	 * <br>Using the example in evalfunc's javadoc, if there are 3 yellow coins and 1 blank, then 
-	 * add 1 for a[2].
-	 * 
-	 * @param currCoin (int) the current player we're updating for (AI or human opponent)
-	 * @param currCoinFreq (int) the frequency of the current player's piece in the winning size connect line
-	 * @param emptyFreq (int) the frequency of empty slots in the winning size connect line
-	 * @param a (int[]) an array of the number of each possible connects for the AI.
-	 * @param b (int[]) an array of the number of each possible connects for the opponent.
-	 * @see evalfunc, getVerticals, getHorizontals, getDiagonals
-	 */
-	
-	private void updateABList(int currCoin, int currCoinFreq, int emptyFreq, int[] a, int[] b){
-		// check if there is an opponent's piece in the line
-		// if there is, then currCoinFreq + empty Freq != SettingsScreen.win_size
-		if (currCoinFreq + emptyFreq == SettingsScreen.win_size){
-			for (int i = 1; i < SettingsScreen.win_size; ++i){
-				// check which player to update for
-				if (currCoin == 2){
-					if (currCoinFreq == i){
-						a[i-1]++;
-					}
-				}
-				else {
-					if (currCoinFreq == i){
-						b[i-1]++;
-					}
-				}
-			}
-		}
-	} // end updateABList
-	
-	/**
-	 * getVerticals gets the SettingsScreen.winning_size elements (current player's coin, empty slots) 
-	 * connected in a vertical line to update the number of connects in that line for the currCoin. 
-	 * If the row we're in is the first open row, we must consider the lines formed with the slots
-	 * below the current coin we're updating for. Otherwise,we only look at the line going up from the current piece we're at.
-	 * <br>currCoin is the current player we're updating for (AI or human opponent).
-	 * @param a (int[]) an array of the number of each possible connects for the AI.
-	 * @param b (int[]) an array of the number of each possible connects for the opponent.
-	 * @param row (int) the row index we're currently at to count the number of connects
-	 * @see updateABList
-	 */
-	
-	private void getVerticals(int[] a, int[] b, int row)
-	{
-		int currCoin = 0; // 1 means player 1, 2 means AI, 0 means empty slot
-		// an array list to store the elements in the line we're looking at
-		List<Integer> line = new ArrayList<Integer>(); 
-		// Frequencies of the coin we're looking at, and frequencies of empty slots
-		int currCoinFreq, emptyFreq;
-
-		// exit function if making a line goes out of boundary
-		if (row+SettingsScreen.win_size-1 > SettingsScreen.rows - 1)
-			return;
-
-		for (int i = 0; i < SettingsScreen.columns; ++i){
-			line.clear();
-			// if row is the first open row and not the first row, must look at previous rows to update...
-			if (row == firstOpenRow && row != 0){
-				// creates line list
-				for (int j = 0; j < SettingsScreen.win_size; ++j){
-					if (row-j < 0) // out of bound
-						break;
-					line.add(game.getCellInfo(row - j, i));
-
-					if (line.get(0) == 2 && game.getCellInfo(row+1, i) == 0 && j != SettingsScreen.win_size-1) // if currCoin is AI's coin
-					{
-						if (line.get(j) == 2 && j != 0)
-						{
-							a[j] += 1;
-						}
-					}
-					else if (line.get(0) != 0 && game.getCellInfo(row+1, i) == 0 && j != SettingsScreen.win_size-1) // if currCoin is Opponent's coin
-					{
-						if (line.get(j) != 2 && j != 0)
-						{
-							b[j] += 1;
-						}
-					}
-					else // if the first element of the line is an empty slot
-					{
-						if (j != 0 && line.get(j) == 2)
-						{
-							a[j-1] +=1;
-						}
-						else if (j != 0)
-						{
-							b[j-1] += 1;
-						}
-					}
-				}
-			}
-			
-			// reset line list and start looking at lines formed with slots above the current coin
-			line.clear();
-			// get currCoin first. If empty slot, nothing to look at and move on to next column.
-			if (game.getCellInfo(row, i) != 0) // current slot isn't empty
-				currCoin = game.getCellInfo(row, i);
-			else continue;
-
-			// creates line list
-			for (int j = 0; j < 4; ++j){
-				line.add(game.getCellInfo(row + j, i));
-			}
-
-			currCoinFreq = Collections.frequency(line, currCoin);
-			emptyFreq = Collections.frequency(line, 0);
-
-			updateABList(currCoin, currCoinFreq, emptyFreq, a, b);
-		}
-	}// End getVerticals
-	
-	/**
-	 * getDiagonals gets the SettingsScreen.winning_size elements (current player's coin, empty slots) 
-	 * connected in a diagonal line to update the number of connects in that line for the currCoin. 
-	 * If the row we're in is the first open row, we must consider the lines formed with the slots
-	 * below the current coin we're updating for. Otherwise,we only look at the diagonal line going up from the current piece we're at.
-	 * <br>currCoin is the current player we're updating for (AI or human opponent).
-	 * @param a (int[]) an array of the number of each possible connects for the AI.
-	 * @param b (int[]) an array of the number of each possible connects for the opponent.
-	 * @param row (int) the row index we're currently at to count the number of connects
-	 * @see updateABList
-	 */
-	
-	private void getDiagonals(int[] a, int[] b, int row){
-		int currCoin = 0; // 1 means player 1, 2 means AI, 0 means empty slot
-		// an array list to store the elements in the line we're looking at
-		List<Integer> line = new ArrayList<Integer>();
-		// Frequencies of the coin we're looking at, and frequencies of empty slots
-		int currCoinFreq=0, emptyFreq=0;
-
-		// exit function if height goes out of boundary
-		if (row+SettingsScreen.win_size-1 > SettingsScreen.rows - 1)
-			return;
-
-		for (int x = 0;x < SettingsScreen.columns; x++){
-			line.clear();
-			// if row is the first open row, must look at diagonals formed with previous rows...
-			if (row == firstOpenRow && row != 0){
-				// creates line list for positive direction
-				for (int j = 0; j < 4; ++j){
-					if (row-j < 0 || x-j < 0) // out of bound
-						break;
-
-					line.add(game.getCellInfo(row-j, x-j));
-					
-					// if the first element is AI's coin
-					if (line.get(0) == 2 && 
-							((row+1 == SettingsScreen.rows || x+1 == SettingsScreen.columns) || game.getCellInfo(row+1, x+1) == 0) && 
-							j != SettingsScreen.win_size-1)
-					{
-						if (line.get(j) == 2 && j != 0)
-							a[j] += 1;
-					}
-					// if the first element is Opponent's coin
-					else if (line.get(0) != 0 && 
-							((row+1 == SettingsScreen.rows || x+1 == SettingsScreen.columns) || game.getCellInfo(row+1, x+1) == 0) && 
-							j != SettingsScreen.win_size-1)
-					{
-						if (line.get(j) != 2 && j != 0)
-							b[j] += 1;
-					}
-					else // if the first element is empty
-					{
-						if (j != 0 && line.get(j) == 2)
-							a[j-1] +=1;
-
-						else if (j != 0)
-							b[j-1] += 1;
-					}
-				}
-
-				// creates line list for negative direction
-				for (int j = 0; j < SettingsScreen.win_size; ++j)
-				{
-					if (row-j < 0 || x+j >= SettingsScreen.columns) // out of bound
-						break;
-
-					line.add(game.getCellInfo(row-j, x+j));
-					
-					// if the first element is AI's coin
-					if (line.get(0) == 2 && 
-							((row+1 == SettingsScreen.rows || x-1 < 0) || game.getCellInfo(row+1, x-1) == 0) && 
-							j != SettingsScreen.win_size-1)
-					{
-						if (line.get(j) == 2 && j != 0)
-							a[j] += 1;
-					}
-					// if the first element is Opponent's coin
-					else if (line.get(0) != 0 && 
-							((row+1 == SettingsScreen.rows || x-1 < 0) || game.getCellInfo(row+1, x-1) == 0) && 
-							j != SettingsScreen.win_size-1) 
-					{
-						if (line.get(j) != 2 && j != 0)
-						{
-							b[j] += 1;
-						}
-					}
-					else // if the first element is an empty slot
-					{
-						if (j != 0 && line.get(j) == 2)
-						{
-							a[j-1] +=1;
-						}
-						else if (j != 0)
-						{
-							b[j-1] += 1;
-						}
-					}
-				}
-			}
-			
-			// reset line list and start looking at lines formed with slots above the current coin
-			line.clear();
-
-			if (x+SettingsScreen.win_size-1 <= SettingsScreen.columns - 1)
-			{
-				// creates line list for positive slope
-				for (int j = 0; j < SettingsScreen.win_size; ++j)
-				{
-					line.add(game.getCellInfo(row + j, x + j));
-					if (game.getCellInfo(row + j, x + j) != 0)
-					{
-						currCoin = game.getCellInfo(row + j, x + j);
-					}
-				}
-
-				currCoinFreq = Collections.frequency(line, currCoin);
-				emptyFreq = Collections.frequency(line, 0);
-
-				updateABList(currCoin, currCoinFreq, emptyFreq, a, b);
-				line.clear();
-			}
-
-			if (x-(SettingsScreen.win_size-1) >= 0)
-			{
-				// creates line list for negative slope
-				for (int j = 0; j < SettingsScreen.win_size; ++j)
-				{
-					line.add(game.getCellInfo(row + j, x - j));
-					if (game.getCellInfo(row + j, x - j) != 0)
-					{
-						currCoin = game.getCellInfo(row + j, x - j);
-					}
-				}
-
-				currCoinFreq = Collections.frequency(line, currCoin);
-				emptyFreq = Collections.frequency(line, 0);
-
-				updateABList(currCoin, currCoinFreq, emptyFreq, a, b);
-			}
-		}
-	} // End getDiagonals
-	
-	/**
-	 * getHorizontals gets the SettingsScreen.winning_size elements (current player's coin, empty slots) 
-	 * connected in a horizontal line to update the number of connects in that line for the currCoin. 
-	 * <br>currCoin is the current player we're updating for (AI or human opponent).
-	 * @param a (int[]) an array of the number of each possible connects for the AI.
-	 * @param b (int[]) an array of the number of each possible connects for the opponent.
-	 * @param row (int) the row index we're currently at to count the number of connects
-	 * @see updateABList
+	 * play makes a simulated move on the board and updates the evaluator with it.
+	 * @param col (int) the column to play in
 	 */
+	private void play(int col){
+		int row = board.getHeight(col);
+		int player = board.getCurrentPlayer();
+		board.play(col);
+		evaluator.play(row, col, player);
+	}
 	
-	private void getHorizontals(int[] a, int[] b, int row){
-		int currCoin = 0; // 1 means player 1, 2 means AI, 0 means empty slot
-		// an array list to store the elements in the line we're looking at
-		List<Integer> line = new ArrayList<Integer>();
-		// Frequencies of the coin we're looking at, and frequencies of empty slots
-		int currCoinFreq, emptyFreq;
-		
-		// construct line list from left to right
-		for (int i = 0; i < SettingsScreen.columns - (SettingsScreen.win_size-1); ++i){
-			line.clear(); // reset line list for the new column
-			currCoin = 0; // reset currCoin
-			
-			for (int j = 0; j < 4; ++j)	{
-				line.add(game.getCellInfo(row, i+j));
-				if (game.getCellInfo(row, i+j) != 0 && currCoin == 0)
-					currCoin = game.getCellInfo(row, i+j);
-			}
-
-			currCoinFreq = Collections.frequency(line, currCoin);
-			emptyFreq = Collections.frequency(line, 0);
-			updateABList(currCoin, currCoinFreq, emptyFreq, a, b);
-		}
+	/** undo unmakes the most recent simulated move on the board and in the evaluator */
+	private void undo(){
+		int col = board.getLastMove();
+		int player = board.getLastPlayer();
+		board.undo();
+		evaluator.unplay(board.getHeight(col), col, player);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.pennypop.project.AI;
+
+/**
+ * A Board that stores each player's discs in a single long. It is used for any board
+ * whose columns * (rows + 1) bits fit in 64 bits, which includes the standard 7x6 board.
+ *
+ * @see Board, LargeBitBoard
+ */
+public class BitBoard extends Board {
+	/** one bit mask per player, index 0 is red and index 1 is yellow **/
+	private final long[] discs;
+
+	public BitBoard(int rows, int columns, int winSize){
+		super(rows, columns, winSize);
+		if (!fits(rows, columns))
+			throw new IllegalArgumentException("Board is too big for a BitBoard: " + columns + "x" + rows);
+		discs = new long[2];
+	}
+
+	/** @return (boolean) true if a board with these dimensions fits in a single long **/
+	public static boolean fits(int rows, int columns){
+		return columns * (rows + 1) <= Long.SIZE;
+	}
+
+	/** @return (long) the bit mask of the player's discs **/
+	public long getDiscs(int player){
+		return discs[player - 1];
+	}
+
+	@Override
+	public int getCell(int row, int col){
+		long bit = 1L << bitIndex(row, col);
+
+		if ((discs[0] & bit) != 0)
+			return RED;
+		else if ((discs[1] & bit) != 0)
+			return YELLOW;
+		else
+			return EMPTY;
+	}
+
+	@Override
+	public boolean hasWon(int player){
+		long b = discs[player - 1];
+
+		for (int d = 0; d < directions.length; ++d){
+			int shift = directions[d];
+			long m = b;
+
+			// a bit survives only if the next win_size-1 cells in this direction are also set
+			for (int i = 1; i < winSize && m != 0; ++i){
+				int s = i * shift;
+				if (s >= Long.SIZE){ // the line is longer than the board, java would wrap the shift
+					m = 0;
+					break;
+				}
+				m &= b >>> s;
+			}
+			if (m != 0)
+				return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public Board copy(){
+		BitBoard board = new BitBoard(rows, columns, winSize);
+		board.discs[0] = discs[0];
+		board.discs[1] = discs[1];
+		copyStateTo(board);
+		return board;
+	}
+
+	@Override
+	protected boolean hasDisc(int player, int index){
+		return (discs[player - 1] & (1L << index)) != 0;
+	}
+
+	@Override
+	protected void placeDisc(int player, int row, int col){
+		discs[player - 1] |= 1L << bitIndex(row, col);
+	}
+
+	@Override
+	protected void removeDisc(int player, int row, int col){
+		discs[player - 1] &= ~(1L << bitIndex(row, col));
+	}
+}
@@ -0,0 +1,281 @@
+package com.pennypop.project.AI;
+
+/**
+ * This is the base class for the state of a connect 4 game: the GameScreen keeps
+ * one board for the real game, and the AI searches on copies of it. A position
+ * keeps the discs of each player as bitboards with no actors or other UI objects,
+ * so making a move, checking if a move is legal and checking for n connected
+ * pieces are all shift-and-mask operations.
+ *
+ * Each column is stored as (rows + 1) bits going from the bottom cell up to an
+ * extra sentinel bit that is always empty. The sentinel bit keeps the lines of
+ * one column from running into the next column when the bitboard is shifted.
+ * <br>Bit index of a cell = col * (rows + 1) + row
+ *
+ * The winner is kept up to date on every play and undo by only looking at the lines that go
+ * through the disc that was just placed, so checking for game over during a search is free.
+ *
+ * The board also keeps a 64-bit Zobrist hash of the position that is updated on every
+ * play and undo, for the AI's transposition table.
+ *
+ * Use {@link #create(int, int, int)} to get the right implementation for the
+ * board size: a BitBoard (one long per player) when the board fits in 64 bits,
+ * and a LargeBitBoard (long[] per player) otherwise.
+ *
+ * @see BitBoard, LargeBitBoard, AlphaBetaAI, com.pennypop.project.GameScreen
+ */
+public abstract class Board {
+	/** Player numbers, same as GameScreen's cell info **/
+	public static final int EMPTY = 0, RED = 1, YELLOW = 2;
+
+	protected final int rows, columns, winSize;
+	/** number of bits used by each column, includes the sentinel bit **/
+	protected final int colHeight;
+	/** number of discs in each column **/
+	protected final int[] heights;
+	/** columns played so far, in order, so moves can be unmade **/
+	protected final int[] moves;
+	protected int moveCount;
+	/** one random key per player and bit index, xor-ed into the hash when a disc is placed or removed **/
+	protected final long[][] zobristKeys;
+	/** Zobrist hash of the current position **/
+	protected long hash;
+	/** the bit shifts to go one cell up, right, up-right and down-right **/
+	protected final int[] directions;
+	/** the player with win_size pieces connected, 0 if nobody has won yet **/
+	protected int winner;
+	/** the move count right after the winning move, so undo knows when to clear the winner **/
+	protected int winnerMoveCount;
+
+	/**
+	 * The constructor sets up an empty board.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 */
+	protected Board(int rows, int columns, int winSize){
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+		colHeight = rows + 1;
+		heights = new int[columns];
+		moves = new int[rows * columns];
+		moveCount = 0;
+		zobristKeys = zobristKeys(columns * colHeight);
+		hash = 0;
+		directions = new int[] {1, colHeight, colHeight + 1, colHeight - 1};
+		winner = EMPTY;
+	}
+
+	/**
+	 * This method creates an empty board, picking the bitboard implementation that fits
+	 * the given dimensions.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @return (Board) an empty board
+	 */
+	public static Board create(int rows, int columns, int winSize){
+		if (BitBoard.fits(rows, columns))
+			return new BitBoard(rows, columns, winSize);
+		else
+			return new LargeBitBoard(rows, columns, winSize);
+	}
+
+	public int getRows(){
+		return rows;
+	}
+
+	public int getColumns(){
+		return columns;
+	}
+
+	public int getWinSize(){
+		return winSize;
+	}
+
+	/** @return (int) the number of discs in the given column **/
+	public int getHeight(int col){
+		return heights[col];
+	}
+
+	/** @return (long) the Zobrist hash of the current position **/
+	public long getHash(){
+		return hash;
+	}
+
+	/** @return (int) the number of moves made so far **/
+	public int getMoveCount(){
+		return moveCount;
+	}
+
+	/** @return (int) the column of the move with the given number, 0 is the first move of the game **/
+	public int getMove(int index){
+		return moves[index];
+	}
+
+	/** @return (int) the column of the most recent move **/
+	public int getLastMove(){
+		return moves[moveCount - 1];
+	}
+
+	/** @return (int) the player who plays next. Red always goes first. **/
+	public int getCurrentPlayer(){
+		return (moveCount & 1) == 0 ? RED : YELLOW;
+	}
+
+	/** @return (int) the player who made the most recent move **/
+	public int getLastPlayer(){
+		return (moveCount & 1) == 0 ? YELLOW : RED;
+	}
+
+	/** @return (boolean) true if the column isn't full **/
+	public boolean canPlay(int col){
+		return heights[col] < rows;
+	}
+
+	/** @return (boolean) true if every cell of the board is occupied **/
+	public boolean isFull(){
+		return moveCount == moves.length;
+	}
+
+	/** @return (boolean) true if a player has won or the board is full **/
+	public boolean isGameOver(){
+		return winner != EMPTY || isFull();
+	}
+
+	/** @return (int) 1 if red won, 2 if yellow won, 0 if nobody has won (yet) **/
+	public int getWinner(){
+		return winner;
+	}
+
+	/**
+	 * This method drops the current player's disc into the given column.
+	 * The column must not be full, check with canPlay first.
+	 * @param col (int) the column index to play in
+	 */
+	public void play(int col){
+		int player = getCurrentPlayer();
+		int index = bitIndex(heights[col], col);
+		placeDisc(player, heights[col], col);
+		hash ^= zobristKeys[player - 1][index];
+		heights[col]++;
+		moves[moveCount++] = col;
+
+		if (winner == EMPTY && isWinningDisc(player, index))
+			setWinner(player);
+	}
+
+	/** This method unmakes the most recently made move */
+	public void undo(){
+		int col = moves[--moveCount];
+		heights[col]--;
+		int player = getCurrentPlayer();
+		removeDisc(player, heights[col], col);
+		hash ^= zobristKeys[player - 1][bitIndex(heights[col], col)];
+
+		if (moveCount < winnerMoveCount)
+			winner = EMPTY;
+	}
+
+	/** Records the player as the winner as of the current move **/
+	private void setWinner(int player){
+		winner = player;
+		winnerMoveCount = moveCount;
+	}
+
+	/**
+	 * This method checks if the disc at the given bit index is part of SettingsScreen.win_size
+	 * connected pieces. Only the lines going through that disc are looked at, in all four
+	 * directions. The sentinel bits are always empty, so a line stops at the edge of a column.
+	 * @param player (int) the owner of the disc
+	 * @param index (int) the bit index of the disc
+	 * @return (boolean) true if the disc completes a winning line
+	 */
+	protected boolean isWinningDisc(int player, int index){
+		int limit = columns * colHeight;
+
+		for (int d = 0; d < directions.length; ++d){
+			int shift = directions[d];
+			int count = 1;
+
+			for (int i = index + shift; i < limit && count < winSize && hasDisc(player, i); i += shift){
+				count++;
+			}
+			for (int i = index - shift; i >= 0 && count < winSize && hasDisc(player, i); i -= shift){
+				count++;
+			}
+			if (count >= winSize)
+				return true;
+		}
+
+		return false;
+	}
+
+	/** @return (int) the bit index of the given cell **/
+	protected final int bitIndex(int row, int col){
+		return col * colHeight + row;
+	}
+
+	/**
+	 * This method sees which player occupies the specified cell.
+	 * @param row (int) the row index of the board
+	 * @param col (int) the column index of the board
+	 * @return An int. 1 for red player, 2 for yellow player, 0 if unoccupied.
+	 */
+	public abstract int getCell(int row, int col);
+
+	/**
+	 * This method checks if the player has SettingsScreen.win_size pieces connected in a
+	 * row horizontally, vertically or in either diagonal.
+	 * @param player (int) 1 for red, 2 for yellow
+	 * @return (boolean) true if the player has won
+	 */
+	public abstract boolean hasWon(int player);
+
+	/** @return (Board) an independent copy of this board **/
+	public abstract Board copy();
+
+	/** @return (boolean) true if the player's bit at the given bit index is set **/
+	protected abstract boolean hasDisc(int player, int index);
+
+	/** Sets the player's bit of the given cell **/
+	protected abstract void placeDisc(int player, int row, int col);
+
+	/** Clears the player's bit of the given cell **/
+	protected abstract void removeDisc(int player, int row, int col);
+
+	/** Copies the heights and move history of this board into the other board **/
+	protected void copyStateTo(Board other){
+		System.arraycopy(heights, 0, other.heights, 0, columns);
+		System.arraycopy(moves, 0, other.moves, 0, moveCount);
+		other.moveCount = moveCount;
+		other.hash = hash;
+		other.winner = winner;
+		other.winnerMoveCount = winnerMoveCount;
+	}
+
+	/**
+	 * This method makes the Zobrist keys for a board. The keys only depend on the bit index, so
+	 * every board of the same size gets the same keys and a position always has the same hash.
+	 * @param bits (int) the number of bits used by the board
+	 * @return (long[][]) one key per player and bit index
+	 */
+	private static long[][] zobristKeys(int bits){
+		long[][] keys = new long[2][bits];
+		long seed = 0x5DEECE66DL;
+
+		for (int player = 0; player < 2; ++player){
+			for (int i = 0; i < bits; ++i){
+				// splitmix64 step, gives well mixed 64-bit keys from a counter
+				seed += 0x9E3779B97F4A7C15L;
+				long z = seed;
+				z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+				z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+				keys[player][i] = z ^ (z >>> 31);
+			}
+		}
+
+		return keys;
+	}
+}
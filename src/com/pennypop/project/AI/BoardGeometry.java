@@ -0,0 +1,174 @@
+package com.pennypop.project.AI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The winning lines of one board size, worked out once and shared by everything that needs
+ * them: the Evaluator of every AI thread, and the GameScreen to show the line that won.
+ *
+ * A window is a line of win_size cells (horizontal, vertical or diagonal) that fits on the
+ * board. Cells are numbered row * columns + col. The tables are flat int arrays so the hot
+ * loops that use them have no bounds checks or direction steps of their own:
+ * <ul>
+ * <li>getWindowCells: the cells of window w are at w * win_size ... w * win_size + win_size - 1</li>
+ * <li>getCellWindows: the windows through a cell are at getCellWindowStart()[cell] ...
+ * getCellWindowStart()[cell + 1] - 1</li>
+ * </ul>
+ * The arrays are shared, so they must never be changed.
+ *
+ * Use {@link #get(int, int, int)}, which builds the tables the first time a board size is used
+ * (when a game with new settings starts) and hands out the same instance after that.
+ *
+ * @see Evaluator
+ */
+public class BoardGeometry {
+	/** the geometry of every board size used so far, by key(rows, columns, winSize) **/
+	private static final Map<Long, BoardGeometry> cache = new HashMap<Long, BoardGeometry>();
+
+	private final int rows, columns, winSize;
+	private final int windowCount;
+	private final int[] windowCells;
+	private final int[] cellWindowStart, cellWindows;
+
+	/**
+	 * get gets the geometry of a board size, building it the first time.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @return (BoardGeometry) the shared geometry
+	 */
+	public static synchronized BoardGeometry get(int rows, int columns, int winSize){
+		Long key = ((long) rows << 40) | ((long) columns << 20) | winSize;
+		BoardGeometry geometry = cache.get(key);
+		if (geometry == null){
+			geometry = new BoardGeometry(rows, columns, winSize);
+			cache.put(key, geometry);
+		}
+		return geometry;
+	}
+
+	private BoardGeometry(int rows, int columns, int winSize){
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+
+		// row and column steps of the four directions: right, up, up-right, down-right
+		int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {-1, 1}};
+
+		// count the windows first so the arrays can be sized exactly
+		int windows = 0;
+		for (int[] step : steps){
+			for (int row = 0; row < rows; ++row){
+				for (int col = 0; col < columns; ++col){
+					if (fits(row, col, step))
+						windows++;
+				}
+			}
+		}
+		windowCount = windows;
+
+		windowCells = new int[windows * winSize];
+		int[] perCell = new int[rows * columns];
+		int w = 0;
+		for (int[] step : steps){
+			for (int row = 0; row < rows; ++row){
+				for (int col = 0; col < columns; ++col){
+					if (!fits(row, col, step))
+						continue;
+					for (int i = 0; i < winSize; ++i){
+						int cell = (row + i * step[0]) * columns + col + i * step[1];
+						windowCells[w * winSize + i] = cell;
+						perCell[cell]++;
+					}
+					w++;
+				}
+			}
+		}
+
+		// invert the table so each cell knows its windows
+		cellWindowStart = new int[rows * columns + 1];
+		for (int cell = 0; cell < rows * columns; ++cell){
+			cellWindowStart[cell + 1] = cellWindowStart[cell] + perCell[cell];
+		}
+		cellWindows = new int[windows * winSize];
+		int[] filled = new int[rows * columns];
+		for (w = 0; w < windows; ++w){
+			for (int i = 0; i < winSize; ++i){
+				int cell = windowCells[w * winSize + i];
+				cellWindows[cellWindowStart[cell] + filled[cell]++] = w;
+			}
+		}
+	}
+
+	/** @return (boolean) true if a window starting at the cell and going in the step's direction stays on the board **/
+	private boolean fits(int row, int col, int[] step){
+		int endRow = row + (winSize - 1) * step[0];
+		int endCol = col + (winSize - 1) * step[1];
+		return endRow >= 0 && endRow < rows && endCol >= 0 && endCol < columns;
+	}
+
+	public int getRows(){
+		return rows;
+	}
+
+	public int getColumns(){
+		return columns;
+	}
+
+	public int getWinSize(){
+		return winSize;
+	}
+
+	public int getWindowCount(){
+		return windowCount;
+	}
+
+	/** @return (int) the number of the cell, row * columns + col **/
+	public int cellIndex(int row, int col){
+		return row * columns + col;
+	}
+
+	/** @return (int[]) the cells of every window, win_size per window. Must not be changed. **/
+	public int[] getWindowCells(){
+		return windowCells;
+	}
+
+	/** @return (int[]) where each cell's windows start in getCellWindows, one more entry than cells. Must not be changed. **/
+	public int[] getCellWindowStart(){
+		return cellWindowStart;
+	}
+
+	/** @return (int[]) the windows through each cell, see getCellWindowStart. Must not be changed. **/
+	public int[] getCellWindows(){
+		return cellWindows;
+	}
+
+	/**
+	 * findWinningWindow finds a window through the cell that the player fills completely, e.g.
+	 * to show the line that won the game.
+	 * @param board (Board) the position, of this geometry's size
+	 * @param row (int) the row index of the cell
+	 * @param col (int) the column index of the cell
+	 * @param player (int) 1 for red, 2 for yellow
+	 * @return (int) the window, or -1 if the cell isn't part of a winning line of the player
+	 */
+	public int findWinningWindow(Board board, int row, int col, int player){
+		int cell = cellIndex(row, col);
+		for (int i = cellWindowStart[cell]; i < cellWindowStart[cell + 1]; ++i){
+			int w = cellWindows[i];
+			int k = 0;
+			while (k < winSize && owner(board, windowCells[w * winSize + k]) == player){
+				k++;
+			}
+			if (k == winSize)
+				return w;
+		}
+		return -1;
+	}
+
+	/** @return (int) the player of the numbered cell, 0 if it's empty **/
+	private int owner(Board board, int cell){
+		return board.getCell(cell / columns, cell % columns);
+	}
+}
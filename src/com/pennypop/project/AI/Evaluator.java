@@ -0,0 +1,188 @@
+package com.pennypop.project.AI;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the AI's utility value of a position up to date as moves are made and unmade,
+ * so evaluating a leaf of the game tree is just reading a number.
+ *
+ * A window is a line of SettingsScreen.win_size cells (horizontal, vertical or diagonal) that a
+ * player could still win with. For every window the number of red and yellow discs in it is kept.
+ * A window with only yellow discs is worth +weight[yellow count], a window with only red discs is
+ * worth -weight[red count], and a window with both colors is worth nothing since nobody can win
+ * with it anymore. The weight of n discs is n^5, so windows that are closer to a win count a lot more.
+ *
+ * Playing or unplaying a disc only changes the windows that go through its cell, so each update
+ * takes at most 4 * win_size steps and never allocates.
+ *
+ * On large boards the evaluator can also keep track of which cells share a window with a disc
+ * (see trackCandidates), so the AI only has to look at moves near the discs already played.
+ *
+ * @see AlphaBetaAI, BoardGeometry
+ */
+public class Evaluator {
+	private final int rows, columns, winSize;
+	/** the cells of each window, winSize entries per window, as row * columns + col (shared, see BoardGeometry) **/
+	private final int[] windowCells;
+	/** cellWindows[cellWindowStart[cell] ... cellWindowStart[cell + 1] - 1] are the windows through the cell **/
+	private final int[] cellWindowStart, cellWindows;
+	/** the number of red (index 0) and yellow (index 1) discs in each window **/
+	private final int[][] counts;
+	/** weight[n] = n^5, the value of a window with n discs of one color and nothing else **/
+	private final int[] weight;
+	/** utility value of the current position, yellow (the AI) is positive **/
+	private int score;
+	/** for each cell, the discs in the windows through it (counted once per window), null unless trackCandidates was called **/
+	private int[] nearby;
+
+	/**
+	 * The constructor gets the windows of the board from its BoardGeometry and precomputes the weights.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 */
+	public Evaluator(int rows, int columns, int winSize){
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+
+		weight = new int[winSize + 1];
+		for (int n = 1; n <= winSize; ++n){
+			weight[n] = n * n * n * n * n;
+		}
+
+		// the window tables are shared by every evaluator of the board size
+		BoardGeometry geometry = BoardGeometry.get(rows, columns, winSize);
+		windowCells = geometry.getWindowCells();
+		cellWindowStart = geometry.getCellWindowStart();
+		cellWindows = geometry.getCellWindows();
+		counts = new int[2][geometry.getWindowCount()];
+	}
+
+	/**
+	 * This method makes play and unplay also count the discs near every cell, for isCandidate.
+	 * That costs win_size times more work per move, so it's only worth it on large boards where
+	 * most moves are far from the discs. It should be called before reset.
+	 */
+	public void trackCandidates(){
+		if (nearby == null)
+			nearby = new int[rows * columns];
+	}
+
+	/**
+	 * This method sets the counts and the score from the discs of the board. It should be called
+	 * once before a search, after that play and unplay keep the score up to date.
+	 * @param board (Board) the position to evaluate
+	 */
+	public void reset(Board board){
+		for (int w = 0; w < counts[0].length; ++w){
+			counts[0][w] = 0;
+			counts[1][w] = 0;
+		}
+		score = 0;
+		if (nearby != null)
+			Arrays.fill(nearby, 0);
+
+		for (int row = 0; row < rows; ++row){
+			for (int col = 0; col < columns; ++col){
+				int player = board.getCell(row, col);
+				if (player != Board.EMPTY)
+					play(row, col, player);
+			}
+		}
+	}
+
+	/**
+	 * This method adds a disc to every window through its cell and updates the score.
+	 * @param row (int) the row index of the disc
+	 * @param col (int) the column index of the disc
+	 * @param player (int) 1 for red, 2 for yellow
+	 */
+	public void play(int row, int col, int player){
+		int[] mine = counts[player - 1];
+		int cell = row * columns + col;
+
+		for (int i = cellWindowStart[cell]; i < cellWindowStart[cell + 1]; ++i){
+			int w = cellWindows[i];
+			score -= value(w);
+			mine[w]++;
+			score += value(w);
+			if (nearby != null){
+				for (int k = w * winSize; k < (w + 1) * winSize; ++k){
+					nearby[windowCells[k]]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method removes a disc from every window through its cell and updates the score.
+	 * @param row (int) the row index of the disc
+	 * @param col (int) the column index of the disc
+	 * @param player (int) 1 for red, 2 for yellow
+	 */
+	public void unplay(int row, int col, int player){
+		int[] mine = counts[player - 1];
+		int cell = row * columns + col;
+
+		for (int i = cellWindowStart[cell]; i < cellWindowStart[cell + 1]; ++i){
+			int w = cellWindows[i];
+			score -= value(w);
+			mine[w]--;
+			score += value(w);
+			if (nearby != null){
+				for (int k = w * winSize; k < (w + 1) * winSize; ++k){
+					nearby[windowCells[k]]--;
+				}
+			}
+		}
+	}
+
+	/** @return (int) the value of one window, positive if only yellow has discs in it **/
+	private int value(int w){
+		int red = counts[0][w];
+		int yellow = counts[1][w];
+
+		if (red == 0)
+			return weight[yellow];
+		else if (yellow == 0)
+			return -weight[red];
+		else
+			return 0;
+	}
+
+	/** @return (int) the utility value of the current position, yellow (the AI) is positive **/
+	public int evaluate(){
+		return score;
+	}
+
+	/**
+	 * isCandidate checks if a cell shares a window with a disc. Only works after trackCandidates.
+	 * @param row (int) the row index of the cell
+	 * @param col (int) the column index of the cell
+	 * @return (boolean) true if a disc is at most win_size - 1 cells away in a straight line
+	 */
+	public boolean isCandidate(int row, int col){
+		return nearby[row * columns + col] > 0;
+	}
+
+	/**
+	 * winsAt checks if a disc of the player in the cell would complete a window.
+	 * @param row (int) the row index of the cell, which should be empty
+	 * @param col (int) the column index of the cell
+	 * @param player (int) 1 for red, 2 for yellow
+	 * @return (boolean) true if the player would win by playing there
+	 */
+	public boolean winsAt(int row, int col, int player){
+		int[] mine = counts[player - 1];
+		int[] theirs = counts[2 - player];
+		int cell = row * columns + col;
+
+		for (int i = cellWindowStart[cell]; i < cellWindowStart[cell + 1]; ++i){
+			int w = cellWindows[i];
+			if (mine[w] == winSize - 1 && theirs[w] == 0)
+				return true;
+		}
+		return false;
+	}
+}
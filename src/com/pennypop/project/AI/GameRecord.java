@@ -0,0 +1,51 @@
+package com.pennypop.project.AI;
+
+/**
+ * The constants of the game record format, a compact binary file of many played games, written
+ * by GameRecordWriter and read by GameRecordReader.
+ *
+ * A file starts with a 5 byte header:
+ * <br>magic (int), version (byte)
+ * <br>followed by the games, one after the other. Each game is:
+ * <br>rows (varint), columns (varint), win_size (varint), red player (byte), yellow player (byte),
+ * <br>the columns of the moves in the order they were played, each as a varint of column + 1,
+ * <br>END_OF_MOVES (byte), result (byte)
+ * <br>A varint is 7 bits per byte, lowest bits first, with the top bit set on every byte but the
+ * last. So a move is one byte on boards of up to 127 columns, and the size of a standard game is
+ * 5 bytes plus one per move.
+ *
+ * The moves don't have a count in front of them so they can be written as they are played.
+ * If the program stops in the middle of a game, the file can end with a game without
+ * END_OF_MOVES, which GameRecordReader reads as UNFINISHED. GameRecordWriter cuts such a game off
+ * before it appends to the file, so it's only there until the next game is written. Moves are
+ * only flushed when a game ends, so usually nothing of a game cut short reaches the file.
+ *
+ * @see GameRecordWriter, GameRecordReader
+ */
+public final class GameRecord {
+	static final int MAGIC = 0x43344752; // "C4GR"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 5;
+	/** the byte after the last move of a game, moves are written as column + 1 so they are never 0 **/
+	static final int END_OF_MOVES = 0;
+
+	/** Who played a color **/
+	public static final int HUMAN = 0, ALPHA_BETA = 1, SOLVER = 2;
+
+	/** Results, the winners are the same as Board's player numbers **/
+	public static final int DRAW = Board.EMPTY, RED_WON = Board.RED, YELLOW_WON = Board.YELLOW, UNFINISHED = 3;
+
+	private GameRecord(){
+	}
+
+	/**
+	 * resultOf gets the result of a game.
+	 * @param board (Board) the position at the end of the game
+	 * @return (int) RED_WON or YELLOW_WON, DRAW if the board is full, UNFINISHED otherwise
+	 */
+	public static int resultOf(Board board){
+		if (board.getWinner() != Board.EMPTY)
+			return board.getWinner();
+		return board.isFull() ? DRAW : UNFINISHED;
+	}
+}
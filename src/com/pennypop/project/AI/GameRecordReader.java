@@ -0,0 +1,210 @@
+package com.pennypop.project.AI;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class reads the games of a game record file (see GameRecord for the format) straight
+ * from a memory-mapped copy of the file: nothing is loaded or copied onto the heap, so scanning
+ * millions of games only costs reading their bytes once.
+ *
+ * The reader is a cursor: next moves it to the following game, and the getters describe the
+ * game it's on. e.g.
+ * <br>GameRecordReader games = GameRecordReader.open(file);
+ * <br>while (games.next()){ if (games.getResult() == GameRecord.RED_WON) ... }
+ *
+ * A file is mapped in one piece, so it can't be larger than 2 GB. A reader is for one thread,
+ * but several readers can be opened on the same file.
+ *
+ * @see GameRecordWriter
+ */
+public class GameRecordReader {
+	private final MappedByteBuffer buffer;
+	/** where the next game starts **/
+	private int next;
+
+	// the current game
+	private int rows, columns, winSize, redPlayer, yellowPlayer, result;
+	private int moveCount;
+	/** where the first move of the current game is **/
+	private int movesStart;
+	/** true if every move of the current game is one byte, so getMove can index it directly **/
+	private boolean oneByteMoves;
+	/** the last move decoded by getMove on boards with more than 127 columns and where the one after it starts **/
+	private int cursorMove, cursorPosition;
+
+	private GameRecordReader(MappedByteBuffer buffer){
+		this.buffer = buffer;
+		next = GameRecord.HEADER_BYTES;
+	}
+
+	/**
+	 * This method maps a record file into memory. The file can be closed right away, the
+	 * mapping stays valid until the reader is garbage collected.
+	 * @param file (File) the record file
+	 * @return (GameRecordReader) a reader before the first game
+	 * @throws IOException if the file can't be read, is too large or isn't a record file
+	 */
+	public static GameRecordReader open(File file) throws IOException{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Game record file is larger than 2 GB: " + file);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.limit() < GameRecord.HEADER_BYTES || buffer.getInt(0) != GameRecord.MAGIC
+					|| buffer.get(4) != GameRecord.VERSION)
+				throw new IOException("Not a game record file: " + file);
+			return new GameRecordReader(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/** This method moves the reader back before the first game **/
+	public void rewind(){
+		next = GameRecord.HEADER_BYTES;
+	}
+
+	/**
+	 * next moves to the next game. The moves are only counted, not decoded.
+	 * @return (boolean) false if there are no more games
+	 */
+	public boolean next(){
+		int limit = buffer.limit();
+		int position = next;
+		if (position + 5 > limit)
+			return false;
+
+		rows = readVarInt(position);
+		position = skipVarInt(position);
+		columns = readVarInt(position);
+		position = skipVarInt(position);
+		winSize = readVarInt(position);
+		position = skipVarInt(position);
+		if (position + 2 > limit)
+			return false;
+		redPlayer = buffer.get(position++);
+		yellowPlayer = buffer.get(position++);
+
+		// count the moves up to END_OF_MOVES, a varint only has a byte below 0x80 at its end
+		movesStart = position;
+		moveCount = 0;
+		int bytes = 0;
+		byte b = 1;
+		while (position < limit && (b = buffer.get(position++)) != GameRecord.END_OF_MOVES){
+			bytes++;
+			if (b > 0)
+				moveCount++;
+		}
+		oneByteMoves = bytes == moveCount;
+		cursorMove = -1;
+		cursorPosition = movesStart;
+
+		if (b == GameRecord.END_OF_MOVES && position < limit){
+			result = buffer.get(position++);
+			next = position;
+		}
+		else {
+			// the file ends in the middle of a game
+			result = GameRecord.UNFINISHED;
+			next = limit;
+		}
+		return true;
+	}
+
+	public int getRows(){
+		return rows;
+	}
+
+	public int getColumns(){
+		return columns;
+	}
+
+	public int getWinSize(){
+		return winSize;
+	}
+
+	/** @return (int) who played red, e.g. GameRecord.HUMAN **/
+	public int getRedPlayer(){
+		return redPlayer;
+	}
+
+	/** @return (int) who played yellow, e.g. GameRecord.ALPHA_BETA **/
+	public int getYellowPlayer(){
+		return yellowPlayer;
+	}
+
+	/** @return (int) GameRecord.RED_WON, YELLOW_WON, DRAW or UNFINISHED **/
+	public int getResult(){
+		return result;
+	}
+
+	/** @return (int) the number of moves of the game **/
+	public int getMoveCount(){
+		return moveCount;
+	}
+
+	/**
+	 * getMove gets a move of the game. On boards of up to 127 columns it's read directly; on wider
+	 * boards the moves are decoded in order, so reading them first to last is as fast.
+	 * @param index (int) the number of the move, 0 is the first move of the game
+	 * @return (int) the column index of the move
+	 */
+	public int getMove(int index){
+		if (index < 0 || index >= moveCount)
+			throw new IndexOutOfBoundsException("move " + index + " of " + moveCount);
+		if (oneByteMoves)
+			return buffer.get(movesStart + index) - 1;
+
+		if (index <= cursorMove){
+			cursorMove = -1;
+			cursorPosition = movesStart;
+		}
+		int value = 0;
+		while (cursorMove < index){
+			value = readVarInt(cursorPosition);
+			cursorPosition = skipVarInt(cursorPosition);
+			cursorMove++;
+		}
+		return value - 1;
+	}
+
+	/**
+	 * replay plays the game on a new board.
+	 * @param moves (int) how many of the moves to play, getMoveCount for the whole game
+	 * @return (Board) the position after the moves
+	 */
+	public Board replay(int moves){
+		Board board = Board.create(rows, columns, winSize);
+		for (int i = 0; i < moves; ++i){
+			board.play(getMove(i));
+		}
+		return board;
+	}
+
+	/** @return (int) the varint starting at the position, 0 if the file ends inside it **/
+	private int readVarInt(int position){
+		int value = 0;
+		int shift = 0;
+		while (position < buffer.limit() && shift < 32){
+			byte b = buffer.get(position++);
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+			shift += 7;
+		}
+		return 0;
+	}
+
+	/** @return (int) where the varint starting at the position ends **/
+	private int skipVarInt(int position){
+		while (position < buffer.limit() && buffer.get(position++) < 0){
+		}
+		return position;
+	}
+}
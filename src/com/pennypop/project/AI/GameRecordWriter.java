@@ -0,0 +1,263 @@
+package com.pennypop.project.AI;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+
+/**
+ * This class appends games to a game record file (see GameRecord for the format). A game can be
+ * written move by move while it's played, with startGame, move and endGame, or in one go once
+ * it's over, with writeGame.
+ *
+ * The bytes are buffered and only flushed when a game ends, so writing a move costs no I/O.
+ * But a process that is killed in the middle of a game usually loses the whole game, since
+ * its moves were never flushed. If part of a game did reach the file, it's cut off when the file
+ * is opened for appending again, so the next game doesn't run into it.
+ *
+ * To find such a game without reading the whole file, close writes where the complete games end
+ * to a small checkpoint file next to it (the record file's name + ".end"): that length (long) and
+ * the 8 bytes before it (long). Opening the file only reads the games after the checkpoint: none
+ * after a clean close, the games of the last run if it was killed. A checkpoint whose bytes don't
+ * match the file's, e.g. because the file was replaced, is ignored and the file is read from its
+ * start.
+ *
+ * The move by move methods are for one thread; writeGame can be called from several threads
+ * at once, e.g. by the games of a tournament, and never mixes their moves.
+ *
+ * @see GameRecordReader
+ */
+public class GameRecordWriter {
+	private static final String CHECKPOINT_SUFFIX = ".end";
+
+	private final File file;
+	private final OutputStream out;
+	/** true between startGame and endGame **/
+	private boolean inGame;
+	/** the length of the file with everything written to out, and where its last ended game ends **/
+	private long length, completeLength;
+	/** the last 8 bytes written, and the last 8 bytes of the last ended game **/
+	private long tail, completeTail;
+
+	/**
+	 * The constructor opens a file for appending, and writes the header if it's a new file.
+	 * A game the file ends in the middle of is cut off first: appending right after it would
+	 * make the reader take the next game's bytes as its moves.
+	 * @param file (File) the record file
+	 * @throws IOException if the file can't be written, or has something else than games in it
+	 */
+	public GameRecordWriter(File file) throws IOException{
+		this.file = file;
+		boolean append = file.length() > 0;
+		if (append){
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				long end = completeLength(file, raf);
+				if (end < raf.length())
+					raf.setLength(end);
+				length = completeLength = end;
+				tail = completeTail = lastBytes(raf, end);
+			} finally {
+				raf.close();
+			}
+		}
+		else {
+			new File(file.getPath() + CHECKPOINT_SUFFIX).delete(); // it was another file's
+		}
+
+		out = new BufferedOutputStream(new FileOutputStream(file, append));
+		if (!append){
+			writeInt(GameRecord.MAGIC);
+			write(GameRecord.VERSION);
+			out.flush();
+			completeLength = length;
+			completeTail = tail;
+		}
+	}
+
+	/**
+	 * completeLength makes sure the games are added to a record file of this version, and finds
+	 * where its last complete game ends. Only the games after the checkpoint are read.
+	 * @param file (File) the record file
+	 * @param raf (RandomAccessFile) the record file, open
+	 * @return (long) the length of the header and every game that has its END_OF_MOVES and result
+	 * @throws IOException if the file can't be read or isn't a record file
+	 */
+	private static long completeLength(File file, RandomAccessFile raf) throws IOException{
+		if (raf.length() < GameRecord.HEADER_BYTES || raf.readInt() != GameRecord.MAGIC || raf.readByte() != GameRecord.VERSION)
+			throw new IOException("Not a game record file: " + file);
+
+		long end = readCheckpoint(file, raf);
+		raf.seek(end);
+		// reads from the channel's position, which is the RandomAccessFile's, and isn't closed so raf stays open
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(raf.getChannel())));
+		long position = end;
+		try {
+			while (true){
+				// rows, columns and win size are varints, a varint ends with a byte below 0x80
+				for (int varInts = 0; varInts < 3; ++position){
+					if ((in.readByte() & 0x80) == 0)
+						varInts++;
+				}
+				in.readByte(); // red player
+				in.readByte(); // yellow player
+				position += 2;
+				while (in.readByte() != GameRecord.END_OF_MOVES){
+					position++;
+				}
+				in.readByte(); // result
+				position += 2;
+				end = position;
+			}
+		} catch (EOFException e) {
+			return end; // the end of the file, maybe in the middle of a game
+		}
+	}
+
+	/**
+	 * readCheckpoint reads where the complete games ended when the file was last closed. The
+	 * file only grows and is only cut off after that, so the games before it needn't be read.
+	 * @param file (File) the record file
+	 * @param raf (RandomAccessFile) the record file, open
+	 * @return (long) the checkpoint, or the end of the header if there is none or it doesn't match the file
+	 */
+	private static long readCheckpoint(File file, RandomAccessFile raf) throws IOException{
+		File checkpoint = new File(file.getPath() + CHECKPOINT_SUFFIX);
+		if (checkpoint.length() != 16)
+			return GameRecord.HEADER_BYTES;
+		long end, lastBytes;
+		DataInputStream in = new DataInputStream(new FileInputStream(checkpoint));
+		try {
+			end = in.readLong();
+			lastBytes = in.readLong();
+		} finally {
+			in.close();
+		}
+		if (end < GameRecord.HEADER_BYTES || end > raf.length())
+			return GameRecord.HEADER_BYTES;
+		return lastBytes(raf, end) == lastBytes ? end : GameRecord.HEADER_BYTES;
+	}
+
+	/** @return (long) the 8 bytes of the file before end, as write keeps them in tail **/
+	private static long lastBytes(RandomAccessFile raf, long end) throws IOException{
+		long bytes = 0;
+		raf.seek(Math.max(0, end - 8));
+		while (raf.getFilePointer() < end){
+			bytes = bytes << 8 | raf.readUnsignedByte();
+		}
+		return bytes;
+	}
+
+	/**
+	 * startGame starts a new game. A game that was started and not ended is ended as UNFINISHED.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param redPlayer (int) who plays red, e.g. GameRecord.HUMAN
+	 * @param yellowPlayer (int) who plays yellow
+	 * @throws IOException if the file can't be written
+	 */
+	public void startGame(int rows, int columns, int winSize, int redPlayer, int yellowPlayer) throws IOException{
+		if (inGame)
+			endGame(GameRecord.UNFINISHED);
+		writeVarInt(rows);
+		writeVarInt(columns);
+		writeVarInt(winSize);
+		write(redPlayer);
+		write(yellowPlayer);
+		inGame = true;
+	}
+
+	/**
+	 * move adds a move to the game started by startGame.
+	 * @param col (int) the column index that was played
+	 * @throws IOException if the file can't be written
+	 */
+	public void move(int col) throws IOException{
+		if (!inGame)
+			throw new IllegalStateException("no game started");
+		writeVarInt(col + 1);
+	}
+
+	/**
+	 * endGame ends the game started by startGame and flushes it to the file.
+	 * @param result (int) e.g. GameRecord.RED_WON, see GameRecord.resultOf
+	 * @throws IOException if the file can't be written
+	 */
+	public void endGame(int result) throws IOException{
+		if (!inGame)
+			throw new IllegalStateException("no game started");
+		write(GameRecord.END_OF_MOVES);
+		write(result);
+		out.flush();
+		completeLength = length;
+		completeTail = tail;
+		inGame = false;
+	}
+
+	/**
+	 * writeGame writes a whole game from its final position.
+	 * @param board (Board) the position at the end of the game, played from the empty board
+	 * @param redPlayer (int) who played red, e.g. GameRecord.ALPHA_BETA
+	 * @param yellowPlayer (int) who played yellow
+	 * @throws IOException if the file can't be written
+	 */
+	public synchronized void writeGame(Board board, int redPlayer, int yellowPlayer) throws IOException{
+		startGame(board.getRows(), board.getColumns(), board.getWinSize(), redPlayer, yellowPlayer);
+		for (int i = 0; i < board.getMoveCount(); ++i){
+			move(board.getMove(i));
+		}
+		endGame(GameRecord.resultOf(board));
+	}
+
+	/**
+	 * close flushes and closes the file, and writes the checkpoint. A game that was started and not
+	 * ended is ended as UNFINISHED.
+	 * @throws IOException if the file can't be written
+	 */
+	public synchronized void close() throws IOException{
+		try {
+			if (inGame)
+				endGame(GameRecord.UNFINISHED);
+		} finally {
+			out.close();
+		}
+		DataOutputStream checkpoint = new DataOutputStream(new FileOutputStream(file.getPath() + CHECKPOINT_SUFFIX));
+		try {
+			checkpoint.writeLong(completeLength);
+			checkpoint.writeLong(completeTail);
+		} finally {
+			checkpoint.close();
+		}
+	}
+
+	private void write(int value) throws IOException{
+		out.write(value);
+		length++;
+		tail = tail << 8 | (value & 0xFF);
+	}
+
+	private void writeInt(int value) throws IOException{
+		write(value >>> 24);
+		write(value >>> 16);
+		write(value >>> 8);
+		write(value);
+	}
+
+	/** Writes a non-negative number 7 bits at a time, lowest first **/
+	private void writeVarInt(int value) throws IOException{
+		while ((value & ~0x7F) != 0){
+			write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		write(value);
+	}
+}
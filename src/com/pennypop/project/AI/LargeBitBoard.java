@@ -0,0 +1,112 @@
+package com.pennypop.project.AI;
+
+/**
+ * A Board for settings that don't fit in 64 bits. Each player's discs are stored in a
+ * long[] and the win test shifts the whole array at once, one word at a time.
+ *
+ * @see Board, BitBoard
+ */
+public class LargeBitBoard extends Board {
+	/** one bit array per player, index 0 is red and index 1 is yellow **/
+	private final long[][] discs;
+	/** reusable arrays for hasWon so a win test doesn't allocate **/
+	private final long[] mask, shifted;
+	private final int words;
+
+	public LargeBitBoard(int rows, int columns, int winSize){
+		super(rows, columns, winSize);
+		words = (columns * colHeight + Long.SIZE - 1) / Long.SIZE;
+		discs = new long[2][words];
+		mask = new long[words];
+		shifted = new long[words];
+	}
+
+	@Override
+	public int getCell(int row, int col){
+		int index = bitIndex(row, col);
+		int word = index >>> 6;
+		long bit = 1L << index; // java only uses the low 6 bits of the shift
+
+		if ((discs[0][word] & bit) != 0)
+			return RED;
+		else if ((discs[1][word] & bit) != 0)
+			return YELLOW;
+		else
+			return EMPTY;
+	}
+
+	@Override
+	public boolean hasWon(int player){
+		long[] b = discs[player - 1];
+
+		for (int d = 0; d < directions.length; ++d){
+			int shift = directions[d];
+			System.arraycopy(b, 0, mask, 0, words);
+			boolean any = true;
+
+			// a bit survives only if the next win_size-1 cells in this direction are also set
+			for (int i = 1; i < winSize && any; ++i){
+				shiftRight(b, shifted, i * shift);
+				any = false;
+				for (int w = 0; w < words; ++w){
+					mask[w] &= shifted[w];
+					if (mask[w] != 0)
+						any = true;
+				}
+			}
+			if (any)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * This method shifts a bit array to the right (towards bit 0) as if it were one big number.
+	 * @param src (long[]) the bits to shift
+	 * @param dst (long[]) where to store the shifted bits
+	 * @param shift (int) the number of bits to shift by
+	 */
+	private void shiftRight(long[] src, long[] dst, int shift){
+		int wordShift = shift >>> 6;
+		int bitShift = shift & 63;
+
+		for (int w = 0; w < words; ++w){
+			int from = w + wordShift;
+			if (from >= words){
+				dst[w] = 0;
+				continue;
+			}
+			long value = src[from] >>> bitShift;
+			if (bitShift != 0 && from + 1 < words)
+				value |= src[from + 1] << (Long.SIZE - bitShift);
+			dst[w] = value;
+		}
+	}
+
+	@Override
+	public Board copy(){
+		LargeBitBoard board = new LargeBitBoard(rows, columns, winSize);
+		System.arraycopy(discs[0], 0, board.discs[0], 0, words);
+		System.arraycopy(discs[1], 0, board.discs[1], 0, words);
+		copyStateTo(board);
+		return board;
+	}
+
+	@Override
+	protected boolean hasDisc(int player, int index){
+		return (discs[player - 1][index >>> 6] & (1L << index)) != 0;
+	}
+
+	@Override
+	protected void placeDisc(int player, int row, int col){
+		int index = bitIndex(row, col);
+		discs[player - 1][index >>> 6] |= 1L << index;
+	}
+
+	@Override
+	protected void removeDisc(int player, int row, int col){
+		int index = bitIndex(row, col);
+		discs[player - 1][index >>> 6] &= ~(1L << index);
+	}
+}
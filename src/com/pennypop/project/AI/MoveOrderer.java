@@ -0,0 +1,187 @@
+package com.pennypop.project.AI;
+
+import java.util.Arrays;
+
+/**
+ * This class decides the order the AI tries its moves in. Alpha-beta pruning cuts off the most
+ * when the best move is tried first, so the moves are tried in this order:
+ * <ol>
+ * <li>the best move stored in the transposition table for the position</li>
+ * <li>the killer moves of the ply, moves that caused a cutoff in a sibling position</li>
+ * <li>the rest, by history score (how often and how deep the move caused cutoffs so far),
+ * with ties broken by distance from the center column</li>
+ * </ol>
+ * The class also counts how many cutoffs happened and how many of them happened on the
+ * first move tried, which shows how good the ordering is.
+ *
+ * All the arrays are allocated up front, so ordering moves never allocates.
+ *
+ * @see AlphaBetaAI
+ */
+public class MoveOrderer {
+	private static final int KILLERS_PER_PLY = 2;
+
+	private final int columns;
+	/** columns from the center outwards, e.g. 3 2 4 1 5 0 6 for 7 columns **/
+	private final int[] centerOrder;
+	/** rank of each column in centerOrder, lower is closer to the center **/
+	private final int[] centerRank;
+	/** killer moves for each ply, -1 means empty **/
+	private final int[][] killers;
+	/** history score of each column for each player **/
+	private final int[][] history;
+	/** one move list per ply so a parent's list isn't overwritten by its children **/
+	private final int[][] moveLists;
+	/** sort keys for the move lists **/
+	private final int[] keys;
+
+	private long cutoffs;
+	private long firstMoveCutoffs;
+
+	/**
+	 * The constructor sets up the static center-out order and empty tables.
+	 * @param columns (int) the number of columns of the board
+	 * @param maxPly (int) the deepest ply that will be searched
+	 */
+	public MoveOrderer(int columns, int maxPly){
+		this.columns = columns;
+		centerOrder = new int[columns];
+		centerRank = new int[columns];
+		killers = new int[maxPly + 1][KILLERS_PER_PLY];
+		history = new int[2][columns];
+		moveLists = new int[maxPly + 1][columns];
+		keys = new int[columns];
+
+		// center column first, then alternate between the left and right side
+		for (int i = 0; i < columns; ++i){
+			int col = columns / 2 + ((i % 2 == 1) ? -(i + 1) / 2 : i / 2);
+			centerOrder[i] = col;
+			centerRank[col] = i;
+		}
+		clearKillers();
+	}
+
+	/**
+	 * This method puts the legal moves of the position in the ply's move list, in the order
+	 * they should be tried. Get the list with getMoves(ply). It stays valid until this method
+	 * is called again for the same ply.
+	 * @param board (Board) the position
+	 * @param ply (int) the level of the position in the game tree
+	 * @param ttMove (int) the best move from the transposition table, or TranspositionTable.NO_MOVE
+	 * @return (int) the number of legal moves in the list
+	 */
+	public int orderMoves(Board board, int ply, int ttMove){
+		int[] list = moveLists[ply];
+		int[] playerHistory = history[board.getCurrentPlayer() - 1];
+		int count = 0;
+
+		for (int i = 0; i < columns; ++i){
+			int col = centerOrder[i];
+			if (!board.canPlay(col))
+				continue;
+
+			int key;
+			if (col == ttMove)
+				key = Integer.MAX_VALUE;
+			else if (col == killers[ply][0])
+				key = Integer.MAX_VALUE - 2;
+			else if (col == killers[ply][1])
+				key = Integer.MAX_VALUE - 3;
+			else
+				key = Math.min(playerHistory[col], Integer.MAX_VALUE - 4);
+
+			// insertion sort by key, descending. Equal keys keep the center-out order.
+			int j = count;
+			while (j > 0 && keys[j - 1] < key){
+				keys[j] = keys[j - 1];
+				list[j] = list[j - 1];
+				j--;
+			}
+			keys[j] = key;
+			list[j] = col;
+			count++;
+		}
+
+		return count;
+	}
+
+	/** @return (int[]) the move list of the ply, filled by orderMoves **/
+	public int[] getMoves(int ply){
+		return moveLists[ply];
+	}
+
+	/**
+	 * This method is called when a move causes a cutoff. The move becomes a killer move for the
+	 * ply and its history score goes up by depth^2, so moves that refute deep searches count more.
+	 * @param board (Board) the position the move was played from
+	 * @param ply (int) the level of the position in the game tree
+	 * @param col (int) the move that caused the cutoff
+	 * @param depth (int) the number of plies that were left to search below the position
+	 * @param moveIndex (int) the index of the move in the ordered list
+	 */
+	public void recordCutoff(Board board, int ply, int col, int depth, int moveIndex){
+		cutoffs++;
+		if (moveIndex == 0)
+			firstMoveCutoffs++;
+
+		if (killers[ply][0] != col){
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = col;
+		}
+
+		int[] playerHistory = history[board.getCurrentPlayer() - 1];
+		if (playerHistory[col] < Integer.MAX_VALUE / 2) // stop before it overflows
+			playerHistory[col] += depth * depth;
+	}
+
+	/** Forgets the killer moves, they are only useful within one search **/
+	public void clearKillers(){
+		for (int ply = 0; ply < killers.length; ++ply){
+			for (int k = 0; k < KILLERS_PER_PLY; ++k){
+				killers[ply][k] = -1;
+			}
+		}
+	}
+
+	/** Halves the history scores so older searches count less than newer ones **/
+	public void ageHistory(){
+		for (int p = 0; p < history.length; ++p){
+			for (int col = 0; col < columns; ++col){
+				history[p][col] /= 2;
+			}
+		}
+	}
+
+	/** Forgets the history scores of every search so far **/
+	public void clearHistory(){
+		for (int p = 0; p < history.length; ++p){
+			Arrays.fill(history[p], 0);
+		}
+	}
+
+	/** @return (int) the position of the column in the center-out order, 0 for the center **/
+	public int getCenterRank(int col){
+		return centerRank[col];
+	}
+
+	/** @return (long) the number of cutoffs since the counters were reset **/
+	public long getCutoffs(){
+		return cutoffs;
+	}
+
+	/** @return (long) the number of cutoffs caused by the first move tried **/
+	public long getFirstMoveCutoffs(){
+		return firstMoveCutoffs;
+	}
+
+	/** @return (double) the fraction of cutoffs caused by the first move tried, 0 if there were none **/
+	public double getFirstMoveCutoffRate(){
+		return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+	}
+
+	/** Sets the cutoff counters back to zero **/
+	public void resetCounters(){
+		cutoffs = 0;
+		firstMoveCutoffs = 0;
+	}
+}
@@ -0,0 +1,161 @@
+package com.pennypop.project.AI;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A read-only table of precomputed best moves for early positions, so the AI can answer
+ * them without searching.
+ *
+ * The book is a binary file that is memory-mapped when it's opened, so it costs no heap and
+ * no loading time. It starts with a 12 byte header:
+ * <br>magic (int), version (byte), rows (byte), columns (byte), win_size (byte), entry count (int)
+ * <br>followed by 12 byte entries sorted by hash:
+ * <br>Zobrist hash of the position (long), best column (short), score (short)
+ * <br>A lookup is a binary search over the entries. The hashes are the ones kept by Board, so
+ * a book only works for the board size it was made for.
+ *
+ * @see OpeningBookGenerator, AlphaBetaAI
+ */
+public class OpeningBook {
+	private static final int MAGIC = 0x43344F42; // "C4OB"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 12;
+	private static final int ENTRY_BYTES = 12;
+	/** scores are stored in a short, wins and losses are saved as the largest values **/
+	public static final int WIN_SCORE = Short.MAX_VALUE;
+
+	private final ByteBuffer entries;
+	private final int rows, columns, winSize, count;
+
+	private OpeningBook(ByteBuffer buffer){
+		rows = buffer.get(5);
+		columns = buffer.get(6);
+		winSize = buffer.get(7);
+		count = buffer.getInt(8);
+		buffer.position(HEADER_BYTES);
+		entries = buffer.slice();
+	}
+
+	/**
+	 * This method maps a book file into memory. The file can be closed right away, the mapping
+	 * stays valid until the book is garbage collected.
+	 * @param file (File) the book file
+	 * @return (OpeningBook) the opened book
+	 * @throws IOException if the file can't be read or isn't a book
+	 */
+	public static OpeningBook open(File file) throws IOException{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION)
+				throw new IOException("Not an opening book: " + file);
+			if ((long) HEADER_BYTES + (long) buffer.getInt(8) * ENTRY_BYTES != buffer.limit())
+				throw new IOException("Opening book is truncated: " + file);
+			return new OpeningBook(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @return (String) the file name of the book for the board size, e.g. book_7x6_4.bin
+	 */
+	public static String fileName(int rows, int columns, int winSize){
+		return "book_" + columns + "x" + rows + "_" + winSize + ".bin";
+	}
+
+	/** @return (boolean) true if the book was made for boards of this size **/
+	public boolean matches(int rows, int columns, int winSize){
+		return this.rows == rows && this.columns == columns && this.winSize == winSize;
+	}
+
+	/** @return (int) the number of positions in the book **/
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * This method looks up a position.
+	 * @param hash (long) the Zobrist hash of the position
+	 * @return (int) the index of the entry, or -1 if the position isn't in the book
+	 */
+	public int find(long hash){
+		int low = 0;
+		int high = count - 1;
+
+		while (low <= high){
+			int mid = (low + high) >>> 1;
+			long midHash = entries.getLong(mid * ENTRY_BYTES);
+			if (midHash < hash)
+				low = mid + 1;
+			else if (midHash > hash)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/** @return (int) the best column of the entry found by find **/
+	public int moveAt(int index){
+		return entries.getShort(index * ENTRY_BYTES + 8);
+	}
+
+	/** @return (int) the score of the entry found by find, yellow is positive **/
+	public int scoreAt(int index){
+		return entries.getShort(index * ENTRY_BYTES + 10);
+	}
+
+	/**
+	 * This method writes a book file. The entries don't have to be sorted.
+	 * @param file (File) where to write the book
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param hashes (long[]) the hash of each position, no duplicates
+	 * @param moves (int[]) the best column of each position
+	 * @param scores (int[]) the score of each position, clamped to +-WIN_SCORE
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(File file, int rows, int columns, int winSize, long[] hashes, int[] moves, int[] scores) throws IOException{
+		// sort the entries by hash, carrying the move and score along
+		long[] sorted = hashes.clone();
+		Arrays.sort(sorted);
+		int[] order = new int[hashes.length];
+		for (int i = 0; i < hashes.length; ++i){
+			order[Arrays.binarySearch(sorted, hashes[i])] = i;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeByte(rows);
+			out.writeByte(columns);
+			out.writeByte(winSize);
+			out.writeInt(hashes.length);
+			for (int i = 0; i < order.length; ++i){
+				int e = order[i];
+				out.writeLong(hashes[e]);
+				out.writeShort(moves[e]);
+				out.writeShort(Math.max(-WIN_SCORE, Math.min(WIN_SCORE, scores[e])));
+			}
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.pennypop.project.AI;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.pennypop.project.SettingsScreen;
+
+/**
+ * This class builds an opening book offline. Every position with the AI (yellow) to move and
+ * at most the given number of moves played is searched to a fixed depth, and its best move and
+ * score are written to the book. A position and its mirror image are only searched once.
+ * It runs without a libGDX window:
+ * <br>java com.pennypop.project.AI.OpeningBookGenerator [rows] [columns] [win_size] [plies] [depth] [output file]
+ * <br>Put the output in the assets folder to have the game use it. The defaults (6 7 4 3 14) are
+ * the settings of the shipped assets/book_7x6_4.bin.
+ *
+ * @see OpeningBook
+ */
+public class OpeningBookGenerator {
+	/** the positions found so far, by hash, with their mirror image's hash **/
+	private final Map<Long, Long> mirrors = new HashMap<Long, Long>();
+	/** one board of each mirror pair, in the order they were found **/
+	private final List<Board> positions = new ArrayList<Board>();
+	private final int maxPlies;
+
+	private OpeningBookGenerator(int maxPlies){
+		this.maxPlies = maxPlies;
+	}
+
+	public static void main(String[] args) throws IOException{
+		SettingsScreen.rows = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		SettingsScreen.columns = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+		SettingsScreen.win_size = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		int plies = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+		int depth = args.length > 4 ? Integer.parseInt(args[4]) : 14;
+		File output = new File(args.length > 5 ? args[5]
+				: OpeningBook.fileName(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size));
+
+		OpeningBookGenerator generator = new OpeningBookGenerator(plies);
+		Board board = Board.create(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
+		generator.collect(board, board.copy());
+		int unique = generator.positions.size();
+		System.out.println(unique + " positions (" + generator.mirrors.size() + " with mirrors), depth " + depth);
+
+		AlphaBetaAI ai = new AlphaBetaAI(null);
+		ai.setDepthLimit(depth);
+		List<Long> hashes = new ArrayList<Long>();
+		List<Integer> moves = new ArrayList<Integer>();
+		List<Integer> scores = new ArrayList<Integer>();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < unique; ++i){
+			Board position = generator.positions.get(i);
+			int move = ai.chooseMove(position.copy());
+			int score = ai.getBestScore();
+			hashes.add(position.getHash());
+			moves.add(move);
+			scores.add(score);
+
+			// the mirror image has the mirrored best move
+			long mirror = generator.mirrors.get(position.getHash());
+			if (mirror != position.getHash()){
+				hashes.add(mirror);
+				moves.add(SettingsScreen.columns - 1 - move);
+				scores.add(score);
+			}
+
+			if ((i + 1) % 50 == 0 || i + 1 == unique)
+				System.out.println((i + 1) + "/" + unique + " searched, "
+						+ String.format("%.1f", (System.nanoTime() - start) / 1e9) + " s");
+		}
+		ai.dispose();
+
+		long[] hashArray = new long[hashes.size()];
+		int[] moveArray = new int[hashes.size()];
+		int[] scoreArray = new int[hashes.size()];
+		for (int i = 0; i < hashArray.length; ++i){
+			hashArray[i] = hashes.get(i);
+			moveArray[i] = moves.get(i);
+			scoreArray[i] = scores.get(i);
+		}
+		OpeningBook.write(output, SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size,
+				hashArray, moveArray, scoreArray);
+		System.out.println("wrote " + hashArray.length + " entries to " + output);
+	}
+
+	/**
+	 * This method walks every move sequence up to maxPlies moves, keeping the positions where
+	 * yellow is to move and the game isn't over yet. The mirror board gets the mirrored moves.
+	 * @param board (Board) the current position
+	 * @param mirror (Board) the mirror image of the current position
+	 */
+	private void collect(Board board, Board mirror){
+		if (board.isGameOver())
+			return;
+		if (board.getCurrentPlayer() == Board.YELLOW && !mirrors.containsKey(board.getHash())){
+			mirrors.put(board.getHash(), mirror.getHash());
+			mirrors.put(mirror.getHash(), board.getHash());
+			positions.add(board.copy());
+		}
+		if (board.getMoveCount() == maxPlies)
+			return;
+
+		for (int col = 0; col < board.getColumns(); ++col){
+			if (!board.canPlay(col))
+				continue;
+			board.play(col);
+			mirror.play(board.getColumns() - 1 - col);
+			collect(board, mirror);
+			mirror.undo();
+			board.undo();
+		}
+	}
+}
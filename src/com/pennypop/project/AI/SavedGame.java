@@ -0,0 +1,206 @@
+package com.pennypop.project.AI;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A game in progress saved to a file, so it can be resumed later: the board size, who plays
+ * yellow, the moves so far and, optionally, the AI's transposition table.
+ *
+ * The file starts with a 22 byte header:
+ * <br>magic (int), version (byte), rows (int), columns (int), win_size (int), yellow player (byte),
+ * move count (int)
+ * <br>followed by the column of each move (short), then the size of the saved table in bytes
+ * (int, 0 if there is none) and the table itself.
+ * <br>open only reads the header and the moves. The table is read by loadTable, in blocks
+ * straight into the AI's table. The file is never left open or memory-mapped, since it's
+ * replaced by the next save (Windows can't delete a file that is mapped).
+ *
+ * Resuming only needs the moves: playing them on a bitboard takes microseconds even on large
+ * boards, and gives back the hash and winner the Board keeps too.
+ *
+ * @see com.pennypop.project.GameScreen, TranspositionTable
+ */
+public class SavedGame {
+	private static final int MAGIC = 0x43345347; // "C4SG"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 22;
+
+	private final File file;
+	private final int rows, columns, winSize, yellowPlayer;
+	private final int[] moves;
+	/** where the saved table starts, and its size in bytes **/
+	private final long tableStart;
+	private final int tableBytes;
+
+	private SavedGame(File file, DataInputStream in) throws IOException{
+		this.file = file;
+		if (in.readInt() != MAGIC || in.readByte() != VERSION)
+			throw new IOException("Not a saved game: " + file);
+		rows = in.readInt();
+		columns = in.readInt();
+		winSize = in.readInt();
+		yellowPlayer = in.readByte();
+		int moveCount = in.readInt();
+		if (moveCount < 0 || HEADER_BYTES + moveCount * 2L + 4 > file.length())
+			throw new IOException("Saved game is truncated: " + file);
+		moves = new int[moveCount];
+		for (int i = 0; i < moveCount; ++i){
+			moves[i] = in.readShort();
+		}
+		tableBytes = in.readInt();
+		tableStart = HEADER_BYTES + moveCount * 2L + 4;
+	}
+
+	/**
+	 * This method reads the header and the moves of a saved game, and closes the file.
+	 * @param file (File) the saved game
+	 * @return (SavedGame) the opened game
+	 * @throws IOException if the file can't be read or isn't a saved game
+	 */
+	public static SavedGame open(File file) throws IOException{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		SavedGame saved;
+		try {
+			saved = new SavedGame(file, in);
+		} catch (EOFException e) {
+			throw new IOException("Saved game is truncated: " + file);
+		} finally {
+			in.close();
+		}
+		if (saved.tableBytes < 0 || saved.tableStart + saved.tableBytes != file.length())
+			throw new IOException("Saved game is truncated: " + file);
+		if (!saved.isPlayable())
+			throw new IOException("Saved game has illegal moves: " + file);
+		return saved;
+	}
+
+	/** @return (boolean) true if the board size makes sense and every move can be played on it without ending the game **/
+	private boolean isPlayable(){
+		if (rows < 1 || columns < 1 || winSize < 1 || moves.length > rows * columns)
+			return false;
+		Board board = Board.create(rows, columns, winSize);
+		for (int col : moves){
+			if (col < 0 || col >= columns || !board.canPlay(col) || board.isGameOver())
+				return false;
+			board.play(col);
+		}
+		return !board.isGameOver();
+	}
+
+	public int getRows(){
+		return rows;
+	}
+
+	public int getColumns(){
+		return columns;
+	}
+
+	public int getWinSize(){
+		return winSize;
+	}
+
+	/** @return (int) who plays yellow, GameRecord.HUMAN or GameRecord.ALPHA_BETA **/
+	public int getYellowPlayer(){
+		return yellowPlayer;
+	}
+
+	/** @return (int) the number of moves made before the game was saved **/
+	public int getMoveCount(){
+		return moves.length;
+	}
+
+	/** @return (int) the column of the move with the given number, 0 is the first move of the game **/
+	public int getMove(int index){
+		return moves[index];
+	}
+
+	/** @return (Board) a new board with all the saved moves played **/
+	public Board getBoard(){
+		Board board = Board.create(rows, columns, winSize);
+		for (int col : moves){
+			board.play(col);
+		}
+		return board;
+	}
+
+	/** @return (boolean) true if a transposition table was saved with the game **/
+	public boolean hasTable(){
+		return tableBytes > 0;
+	}
+
+	/**
+	 * loadTable reads the saved transposition table into an AI's table. The file is opened again
+	 * and closed before it returns.
+	 * @param table (TranspositionTable) the table to fill, it must not be searched meanwhile
+	 * @return (boolean) true if a table of the same size was saved and loaded
+	 */
+	public boolean loadTable(TranspositionTable table){
+		if (!hasTable() || tableBytes != table.byteSize())
+			return false;
+		try {
+			FileInputStream in = new FileInputStream(file);
+			try {
+				FileChannel channel = in.getChannel();
+				if (channel.size() != tableStart + tableBytes)
+					return false; // replaced since it was opened
+				channel.position(tableStart);
+				return table.load(channel, tableBytes);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			System.out.println(e); // the AI starts with an empty table
+			return false;
+		}
+	}
+
+	/**
+	 * This method saves a game. It's written to a temporary file first, so a save that fails
+	 * halfway never replaces the last good one.
+	 * @param file (File) where to save the game
+	 * @param board (Board) the position, played from the empty board
+	 * @param yellowPlayer (int) who plays yellow, GameRecord.HUMAN or GameRecord.ALPHA_BETA
+	 * @param table (TranspositionTable) the AI's table to save with it, or null
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(File file, Board board, int yellowPlayer, TranspositionTable table) throws IOException{
+		int moves = board.getMoveCount();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + moves * 2 + 4);
+		header.putInt(MAGIC);
+		header.put((byte) VERSION);
+		header.putInt(board.getRows());
+		header.putInt(board.getColumns());
+		header.putInt(board.getWinSize());
+		header.put((byte) yellowPlayer);
+		header.putInt(moves);
+		for (int i = 0; i < moves; ++i){
+			header.putShort((short) board.getMove(i));
+		}
+		header.putInt(table == null ? 0 : table.byteSize());
+		header.flip();
+
+		File temp = new File(file.getPath() + ".tmp");
+		FileOutputStream out = new FileOutputStream(temp);
+		try {
+			FileChannel channel = out.getChannel();
+			while (header.hasRemaining()){
+				channel.write(header);
+			}
+			if (table != null)
+				table.save(channel);
+		} finally {
+			out.close();
+		}
+
+		if (file.exists() && !file.delete() || !temp.renameTo(file))
+			throw new IOException("Can't replace " + file);
+	}
+}
@@ -0,0 +1,109 @@
+package com.pennypop.project.AI;
+
+import java.util.Locale;
+
+/**
+ * The statistics of one move chosen by an AI: where the move came from, how deep and how long
+ * the search went, and how well the transposition table and move ordering worked. An AI makes
+ * one of these per move and hands it to its SearchListeners, the search itself only counts
+ * with plain long fields.
+ *
+ * @see AIModule.SearchListener
+ */
+public class SearchStats {
+	/** Where the move came from **/
+	public enum Source {
+		SEARCH, BOOK, PONDER, SOLVER;
+
+		/** @return (String) the name in lower case, e.g. "search" **/
+		@Override
+		public String toString(){
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private final Source source;
+	private final int move, depth;
+	private final long nodes, nanos;
+	private final long tableProbes, tableHits;
+	private final long cutoffs, firstMoveCutoffs;
+	private final double branchingFactor;
+
+	/**
+	 * @param source (Source) where the move came from
+	 * @param move (int) the column chosen
+	 * @param depth (int) the deepest finished iteration, or the number of moves to the end for the solver
+	 * @param nodes (long) the positions searched by all threads
+	 * @param nanos (long) the time taken, in nanoseconds
+	 * @param tableProbes (long) the transposition table lookups
+	 * @param tableHits (long) the lookups that found the position
+	 * @param cutoffs (long) the beta cutoffs
+	 * @param firstMoveCutoffs (long) the cutoffs caused by the first move tried
+	 * @param branchingFactor (double) the effective branching factor, 0 if unknown
+	 */
+	public SearchStats(Source source, int move, int depth, long nodes, long nanos, long tableProbes, long tableHits,
+			long cutoffs, long firstMoveCutoffs, double branchingFactor){
+		this.source = source;
+		this.move = move;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+		this.tableProbes = tableProbes;
+		this.tableHits = tableHits;
+		this.cutoffs = cutoffs;
+		this.firstMoveCutoffs = firstMoveCutoffs;
+		this.branchingFactor = branchingFactor;
+	}
+
+	public Source getSource(){
+		return source;
+	}
+
+	public int getMove(){
+		return move;
+	}
+
+	public int getDepth(){
+		return depth;
+	}
+
+	public long getNodes(){
+		return nodes;
+	}
+
+	/** @return (double) the time taken in milliseconds **/
+	public double getMillis(){
+		return nanos / 1e6;
+	}
+
+	/** @return (double) nodes searched per second, 0 if no time was measured **/
+	public double getNodesPerSecond(){
+		return nanos == 0 ? 0 : nodes / (nanos / 1e9);
+	}
+
+	/** @return (double) the fraction of transposition table lookups that found the position **/
+	public double getTableHitRate(){
+		return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+	}
+
+	public long getCutoffs(){
+		return cutoffs;
+	}
+
+	/** @return (double) the fraction of cutoffs caused by the first move tried, higher means better move ordering **/
+	public double getFirstMoveCutoffRate(){
+		return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+	}
+
+	/** @return (double) how many times more nodes each extra ply of depth costs **/
+	public double getBranchingFactor(){
+		return branchingFactor;
+	}
+
+	@Override
+	public String toString(){
+		return String.format("%s: column %d, depth %d, %.0f ms%n%d nodes, %.0f nodes/s%nTT hits %.0f%%, EBF %.2f, first-move cutoffs %.0f%% of %d",
+				source, move, depth, getMillis(), nodes, getNodesPerSecond(),
+				100 * getTableHitRate(), branchingFactor, 100 * getFirstMoveCutoffRate(), cutoffs);
+	}
+}
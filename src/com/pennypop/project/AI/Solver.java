@@ -0,0 +1,422 @@
+package com.pennypop.project.AI;
+
+/**
+ * This class finds the game-theoretic value of a position: whether the player to move wins,
+ * loses or draws with perfect play from both sides, and how fast.
+ *
+ * The score is from the point of view of the player to move. A positive score means they win,
+ * and the sooner they win the higher it is: winning with their last possible disc scores 1, and
+ * each earlier disc adds one. A negative score is a loss in the same way and 0 is a draw. Use
+ * getOutcome and getPliesToEnd to read a score.
+ *
+ * The search is a negamax alpha-beta search that never looks at a heuristic, it only ends at a
+ * win, a loss or a full board. It runs null-window searches (alpha = beta - 1), each of which
+ * only answers "is the score above x?", and narrows the possible scores down by bisection until
+ * the exact score is known (like MTD(f)). The positions are kept in two longs, the current
+ * player's discs and the occupied cells, so playing a move, finding the legal moves and finding
+ * the cells where a player would win are all a few shift-and-mask operations. Results are kept
+ * in a TranspositionTable across searches, since the value of a position never changes.
+ *
+ * Only boards that fit in a BitBoard (64 bits) can be solved.
+ *
+ * @see SolverAI, Board, TranspositionTable
+ */
+public class Solver {
+	/** returned when the search was stopped before the score was proven **/
+	public static final int UNKNOWN = Integer.MIN_VALUE;
+	/** outcomes for the player to move **/
+	public static final int LOSS = -1, DRAW = 0, WIN = 1;
+	/** the stop conditions are checked once every CHECK_INTERVAL + 1 nodes **/
+	private static final long CHECK_INTERVAL = 0xFFF;
+
+	private final int rows, columns, winSize, cells;
+	/** bits to go one cell up, right, up-right and down-right **/
+	private final int[] directions;
+	/** the bottom cell of every column, and every cell that's on the board (no sentinel bits) **/
+	private final long bottomMask, boardMask;
+	/** all the cells of each column **/
+	private final long[] columnMasks;
+	/** columns from the center outwards, center moves are usually better **/
+	private final int[] columnOrder;
+	private final TranspositionTable table;
+	/** one move list and sort key list per move count, so ordering moves never allocates **/
+	private final long[][] moveLists;
+	private final int[][] moveKeys;
+
+	/** the discs of the player to move, every occupied cell, and the number of moves played **/
+	private long position, mask;
+	private int moveCount;
+
+	private long nodes;
+	private long deadline;
+	private volatile boolean stopRequested;
+	private boolean aborted;
+	private int bestMove;
+
+	/**
+	 * The constructor sets up the masks for the board size and allocates the table.
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 * @param winSize (int) the number of connected pieces needed to win
+	 * @param tableBits (int) log2 of the number of transposition table buckets (32 bytes each)
+	 */
+	public Solver(int rows, int columns, int winSize, int tableBits){
+		if (!canSolve(rows, columns))
+			throw new IllegalArgumentException("Board is too big for the solver: " + columns + "x" + rows);
+		this.rows = rows;
+		this.columns = columns;
+		this.winSize = winSize;
+		cells = rows * columns;
+		int colHeight = rows + 1;
+		directions = new int[] {1, colHeight, colHeight + 1, colHeight - 1};
+
+		long bottom = 0, board = 0;
+		columnMasks = new long[columns];
+		for (int col = 0; col < columns; ++col){
+			columnMasks[col] = ((1L << rows) - 1) << (col * colHeight);
+			bottom |= 1L << (col * colHeight);
+			board |= columnMasks[col];
+		}
+		bottomMask = bottom;
+		boardMask = board;
+
+		columnOrder = new int[columns];
+		for (int i = 0; i < columns; ++i){
+			columnOrder[i] = columns / 2 + ((i % 2 == 1) ? -(i + 1) / 2 : i / 2);
+		}
+		table = new TranspositionTable(tableBits);
+		moveLists = new long[cells + 1][columns];
+		moveKeys = new int[cells + 1][columns];
+	}
+
+	/** @return (boolean) true if boards of this size can be solved **/
+	public static boolean canSolve(int rows, int columns){
+		return BitBoard.fits(rows, columns);
+	}
+
+	/** Makes the running search give up and return UNKNOWN, can be called from any thread **/
+	public void stop(){
+		stopRequested = true;
+	}
+
+	/** @return (long) the number of positions searched by the last solve or analyze **/
+	public long getNodes(){
+		return nodes;
+	}
+
+	/** @return (int) the best column found by the last analyze that finished **/
+	public int getBestMove(){
+		return bestMove;
+	}
+
+	/**
+	 * solve finds the score of a position.
+	 * @param board (Board) the position, must be a board of the solver's size
+	 * @param timeLimit (long) give up after this many milliseconds, 0 for no limit
+	 * @return (int) the score for the player to move, or UNKNOWN if the search was stopped
+	 */
+	public int solve(Board board, long timeLimit){
+		start(board, timeLimit);
+		if (board.getWinner() != Board.EMPTY) // the previous player just won
+			return -(cells + 2 - moveCount) / 2;
+		if (board.isFull())
+			return 0;
+		return solvePosition(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * analyze finds the score of a position and its best move (see getBestMove). When several
+	 * moves are equally good the one closest to the center is chosen.
+	 * @param board (Board) the position, must be a board of the solver's size and not game over
+	 * @param timeLimit (long) give up after this many milliseconds, 0 for no limit
+	 * @return (int) the score for the player to move, or UNKNOWN if the search was stopped
+	 */
+	public int analyze(Board board, long timeLimit){
+		start(board, timeLimit);
+
+		// win right away if possible
+		long wins = winningCells(position, mask) & possibleMoves();
+		if (wins != 0){
+			bestMove = Long.numberOfTrailingZeros(wins) / (rows + 1);
+			return (cells + 1 - moveCount) / 2;
+		}
+
+		int best = UNKNOWN;
+		int bestCol = -1;
+		for (int i = 0; i < columns; ++i){
+			int col = columnOrder[i];
+			if (!board.canPlay(col))
+				continue;
+
+			long savedPosition = position, savedMask = mask;
+			play((mask + bottomMask) & columnMasks[col]);
+			// the child only needs an exact score if it's better than the best move so far
+			int childScore = solvePosition(best == UNKNOWN ? Integer.MAX_VALUE : -best);
+			position = savedPosition;
+			mask = savedMask;
+			moveCount--;
+
+			if (childScore == UNKNOWN)
+				return UNKNOWN;
+			if (bestCol == -1 || -childScore > best){
+				best = -childScore;
+				bestCol = col;
+			}
+		}
+
+		bestMove = bestCol;
+		return best;
+	}
+
+	/**
+	 * getOutcome reads a score.
+	 * @param score (int) a score from solve or analyze
+	 * @return (int) WIN, LOSS or DRAW for the player to move
+	 */
+	public static int getOutcome(int score){
+		return score > 0 ? WIN : score < 0 ? LOSS : DRAW;
+	}
+
+	/**
+	 * getPliesToEnd reads the distance of a score: the number of moves (of both players, including
+	 * the winning move) until the game ends with perfect play.
+	 * @param score (int) a score from solve or analyze
+	 * @param moveCount (int) the number of moves played in the position that was solved
+	 * @return (int) the number of moves until the win, loss or full board
+	 */
+	public int getPliesToEnd(int score, int moveCount){
+		if (score == 0)
+			return cells - moveCount;
+
+		// the winning disc is the n-th disc of the game, with the winner's parity
+		int winnerParity = score > 0 ? moveCount & 1 : (moveCount + 1) & 1;
+		int n = cells + 1 - 2 * Math.abs(score);
+		if ((n & 1) != winnerParity)
+			n--;
+		return n - moveCount + 1;
+	}
+
+	/**
+	 * describe puts a score in words, e.g. "win in 7 moves".
+	 * @param score (int) a score from solve or analyze
+	 * @param moveCount (int) the number of moves played in the position that was solved
+	 * @return (String) the outcome and distance for the player to move
+	 */
+	public String describe(int score, int moveCount){
+		if (score == UNKNOWN)
+			return "unknown";
+		String outcome = score > 0 ? "win" : score < 0 ? "loss" : "draw";
+		int plies = getPliesToEnd(score, moveCount);
+		return outcome + " in " + plies + (plies == 1 ? " move" : " moves");
+	}
+
+	/** Loads the position and resets the counters and stop conditions for a new search **/
+	private void start(Board board, long timeLimit){
+		int player = board.getCurrentPlayer();
+		BitBoard bits = (BitBoard) board;
+		position = bits.getDiscs(player);
+		mask = bits.getDiscs(Board.RED) | bits.getDiscs(Board.YELLOW);
+		moveCount = board.getMoveCount();
+		nodes = 0;
+		deadline = timeLimit > 0 ? System.nanoTime() + timeLimit * 1000000L : 0;
+		stopRequested = false;
+		aborted = false;
+	}
+
+	/**
+	 * solvePosition finds the score of the current position by narrowing down the possible scores
+	 * with null-window searches. Scores above the given upper bound aren't needed, so the search
+	 * stops at the bound when the real score is at least that high.
+	 * @param upperBound (int) the highest score that matters
+	 * @return (int) the score, the bound if the score is at least the bound, or UNKNOWN if stopped
+	 */
+	private int solvePosition(int upperBound){
+		if ((winningCells(position, mask) & possibleMoves()) != 0)
+			return (cells + 1 - moveCount) / 2;
+
+		int min = -(cells - moveCount) / 2;
+		int max = Math.min((cells + 1 - moveCount) / 2, upperBound);
+		while (min < max){
+			// try scores closer to 0 first, most positions are won or lost late
+			int med = min + (max - min) / 2;
+			if (med <= 0 && min / 2 < med)
+				med = min / 2;
+			else if (med >= 0 && max / 2 > med)
+				med = max / 2;
+
+			int result = negamax(med, med + 1);
+			if (aborted)
+				return UNKNOWN;
+			if (result <= med)
+				max = result;
+			else
+				min = result;
+		}
+		return min;
+	}
+
+	/**
+	 * negamax is the alpha-beta search. The player to move must not be able to win right away.
+	 * @param alpha (int) the score the player to move already has
+	 * @param beta (int) the score the opponent already has (from the player to move's view)
+	 * @return (int) the score if it's inside (alpha, beta), otherwise a bound on the side it's on
+	 */
+	private int negamax(int alpha, int beta){
+		nodes++;
+		if ((nodes & CHECK_INTERVAL) == 0 && shouldStop())
+			aborted = true;
+		if (aborted)
+			return 0;
+
+		long next = nonLosingMoves();
+		if (next == 0) // every move lets the opponent win on their next move
+			return -(cells - moveCount) / 2;
+		if (moveCount >= cells - 2) // the last two discs can't win, it's a draw
+			return 0;
+
+		// the opponent can't win on their next move, so the score is at least this
+		int min = -(cells - 2 - moveCount) / 2;
+		if (alpha < min){
+			alpha = min;
+			if (alpha >= beta)
+				return alpha;
+		}
+
+		// the player can't win on this move either, so the score is at most this
+		int max = (cells - 1 - moveCount) / 2;
+		long key = key();
+		long entry = table.probe(key);
+		int ttMove = TranspositionTable.NO_MOVE;
+		if (entry != 0){
+			int score = TranspositionTable.scoreOf(entry);
+			int bound = TranspositionTable.boundOf(entry);
+			ttMove = TranspositionTable.moveOf(entry);
+			if (bound == TranspositionTable.UPPER && score < max)
+				max = score;
+			else if (bound == TranspositionTable.LOWER && score > alpha){
+				alpha = score;
+				if (alpha >= beta)
+					return alpha;
+			}
+		}
+		if (beta > max){
+			beta = max;
+			if (alpha >= beta)
+				return beta;
+		}
+
+		// order the moves: the table's best move, then the moves that make the most threats
+		long[] moves = moveLists[moveCount];
+		int[] keys = moveKeys[moveCount];
+		int count = 0;
+		for (int i = 0; i < columns; ++i){
+			int col = columnOrder[i];
+			long move = next & columnMasks[col];
+			if (move == 0)
+				continue;
+			int k = col == ttMove ? Integer.MAX_VALUE : Long.bitCount(winningCells(position | move, mask | move));
+			int j = count++;
+			while (j > 0 && keys[j - 1] < k){ // insertion sort, ties keep the center-out order
+				keys[j] = keys[j - 1];
+				moves[j] = moves[j - 1];
+				j--;
+			}
+			keys[j] = k;
+			moves[j] = move;
+		}
+
+		long savedPosition = position, savedMask = mask;
+		for (int i = 0; i < count; ++i){
+			play(moves[i]);
+			int score = -negamax(-beta, -alpha);
+			position = savedPosition;
+			mask = savedMask;
+			moveCount--;
+			if (aborted)
+				return 0;
+
+			int col = Long.numberOfTrailingZeros(moves[i]) / (rows + 1);
+			if (score >= beta){
+				table.store(key, cells - moveCount, score, TranspositionTable.LOWER, col);
+				return score;
+			}
+			if (score > alpha)
+				alpha = score;
+		}
+
+		table.store(key, cells - moveCount, alpha, TranspositionTable.UPPER, TranspositionTable.NO_MOVE);
+		return alpha;
+	}
+
+	/** @return (boolean) true if the search was asked to stop, was interrupted or ran out of time **/
+	private boolean shouldStop(){
+		return stopRequested || Thread.currentThread().isInterrupted()
+				|| (deadline != 0 && System.nanoTime() > deadline);
+	}
+
+	/** Plays a move given as the bit of the cell, the other player becomes the player to move **/
+	private void play(long move){
+		position ^= mask;
+		mask |= move;
+		moveCount++;
+	}
+
+	/** @return (long) the lowest empty cell of every column that isn't full **/
+	private long possibleMoves(){
+		return (mask + bottomMask) & boardMask;
+	}
+
+	/**
+	 * nonLosingMoves gets the moves that don't let the opponent win on their next move: if the
+	 * opponent has a winning cell that can be played, it must be blocked, and a disc must never go
+	 * right below an opponent's winning cell.
+	 * @return (long) the cells of the moves, 0 if every move loses
+	 */
+	private long nonLosingMoves(){
+		long possible = possibleMoves();
+		long opponentWins = winningCells(position ^ mask, mask);
+		long forced = possible & opponentWins;
+		if (forced != 0){
+			if ((forced & (forced - 1)) != 0) // two threats at once can't both be blocked
+				return 0;
+			possible = forced;
+		}
+		return possible & ~(opponentWins >>> 1);
+	}
+
+	/**
+	 * winningCells finds the empty cells that would give a player win_size connected discs.
+	 * A cell wins if, in some direction, it's the k-th cell of a line whose other cells are all
+	 * the player's discs, so the discs are shifted onto the cell from both sides and and-ed.
+	 * @param discs (long) the player's discs
+	 * @param occupied (long) every occupied cell
+	 * @return (long) the winning cells, playable or not
+	 */
+	private long winningCells(long discs, long occupied){
+		long result = 0;
+		for (int d = 0; d < directions.length; ++d){
+			int s = directions[d];
+			for (int k = 0; k < winSize; ++k){
+				long line = -1L;
+				for (int j = -k; j < winSize - k && line != 0; ++j){
+					if (j != 0)
+						line &= shift(discs, j * s);
+				}
+				result |= line;
+			}
+		}
+		return result & boardMask & ~occupied;
+	}
+
+	/** @return (long) the bits moved so bit x holds bit x + by, zero when shifted off the long **/
+	private static long shift(long bits, int by){
+		if (by >= Long.SIZE || by <= -Long.SIZE)
+			return 0;
+		return by > 0 ? bits >>> by : bits << -by;
+	}
+
+	/** @return (long) a hash of the position for the table: discs + occupied is unique, then mixed **/
+	private long key(){
+		return (position + mask) * 0x9E3779B97F4A7C15L;
+	}
+}
@@ -0,0 +1,107 @@
+package com.pennypop.project.AI;
+
+import com.pennypop.project.GameScreen;
+import com.pennypop.project.SettingsScreen;
+
+/**
+ * This AI plays perfectly: it proves the value of the position with a Solver and plays the
+ * move that wins fastest, or draws, or loses slowest. After each move, getLastScore and
+ * getLastResult tell how the game will end with perfect play.
+ *
+ * Solving can take a long time early in a game on a big board, so a time limit can be set
+ * (see setTimeLimit). If the proof isn't finished in time, or the board is too big for the
+ * Solver, the move comes from an AlphaBetaAI instead and the result is unknown.
+ *
+ * @see Solver, AlphaBetaAI
+ */
+public class SolverAI extends AIModule {
+	/**log2 of the number of transposition table buckets, 2^20 buckets of 32 bytes is 32 MB**/
+	private static final int TABLE_BUCKET_BITS = 20;
+
+	/**The solver, null if the board is too big for it**/
+	private final Solver solver;
+	/**Plays the moves the solver couldn't prove in time**/
+	private final AlphaBetaAI fallback;
+	/**Milliseconds the solver gets per move, 0 means no limit**/
+	private long timeLimit;
+	/**The score and number of moves played of the last position solved**/
+	private volatile int lastScore, lastMoveCount;
+
+	public SolverAI(GameScreen game){
+		super(game);
+		if (Solver.canSolve(SettingsScreen.rows, SettingsScreen.columns))
+			solver = new Solver(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size, TABLE_BUCKET_BITS);
+		else
+			solver = null;
+		fallback = new AlphaBetaAI(game);
+		lastScore = Solver.UNKNOWN;
+	}
+
+	/**
+	 * setTimeLimit limits how long the solver may take for one move.
+	 * @param timeLimit (long) the limit in milliseconds, 0 to always finish the proof
+	 */
+	public void setTimeLimit(long timeLimit){
+		this.timeLimit = timeLimit;
+	}
+
+	/** @return (int) the Solver score of the last position, for the player who was to move, or Solver.UNKNOWN **/
+	public int getLastScore(){
+		return lastScore;
+	}
+
+	/** @return (String) the last result in words, e.g. "win in 7 moves" **/
+	public String getLastResult(){
+		if (solver == null)
+			return "unknown";
+		return solver.describe(lastScore, lastMoveCount);
+	}
+
+	@Override
+	public void getNextMove(){
+		turn = true; // variable inherited from AIModule class
+		int col = chooseMove(game.copyBoard());
+		game.makeMoveInColumn(col);
+		turn = false;
+	}
+
+	/**
+	 * chooseMove plays the best proven move of the position, or the AlphaBetaAI's move if the
+	 * proof can't be finished.
+	 * @param position (Board) the position to search, must have at least one playable column
+	 * @return (int) the column index of the chosen move
+	 */
+	@Override
+	public int chooseMove(Board position){
+		long start = System.nanoTime();
+		lastScore = Solver.UNKNOWN;
+		lastMoveCount = position.getMoveCount();
+
+		if (solver != null){
+			int score = solver.analyze(position, timeLimit);
+			if (score != Solver.UNKNOWN && !Thread.currentThread().isInterrupted()){
+				lastScore = score;
+				int move = solver.getBestMove();
+				reportSearch(new SearchStats(SearchStats.Source.SOLVER, move, solver.getPliesToEnd(score, lastMoveCount),
+						solver.getNodes(), System.nanoTime() - start, 0, 0, 0, 0, 0));
+				return move;
+			}
+		}
+		int move = fallback.chooseMove(position);
+		reportSearch(fallback.getLastStats());
+		return move;
+	}
+
+	@Override
+	protected void stopSearch(){
+		if (solver != null)
+			solver.stop();
+		fallback.stopSearch();
+	}
+
+	@Override
+	public synchronized void dispose(){
+		super.dispose();
+		fallback.dispose();
+	}
+}
@@ -0,0 +1,218 @@
+package com.pennypop.project.AI;
+
+import java.util.Arrays;
+
+/**
+ * The clock of one AI turn. It decides how long the turn may take, whether another iteration
+ * of the iterative deepening search is worth starting, and when a running iteration has to be
+ * stopped.
+ *
+ * Every turn gets two limits, measured with System.nanoTime (which never jumps like the wall
+ * clock can):
+ * <ul>
+ * <li>the soft limit: no new iteration is started after it. It's the average time per move,
+ * scaled by the game phase. The middle of the game gets the most time, the opening and the end
+ * of the game less, since their trees are small or the book and the solver answer them.</li>
+ * <li>the hard limit: a running iteration is stopped at it. It's HARD_FACTOR times the soft limit.</li>
+ * </ul>
+ * An iteration is only started if it should finish before the hard limit. Its time is guessed
+ * from the last iteration of the same parity and the branching factor measured by the nodes of
+ * the iterations so far, but never less than the same depth took on the last turn: when the
+ * transposition table already knows the first iterations they take no time at all, and the
+ * branching factor they show means nothing.
+ *
+ * The search asks isTimeUp at every node, but the clock is only read every CHECK_INTERVAL calls.
+ * Once the time is up, isTimeUp keeps returning true. Each search thread needs its own
+ * TimeManager, see follow.
+ *
+ * @see AlphaBetaAI
+ */
+public class TimeManager {
+	/**isTimeUp only reads the clock once every this many calls**/
+	private static final int CHECK_INTERVAL = 1024;
+	/**The hard limit is this many times the soft limit**/
+	private static final double HARD_FACTOR = 2.5;
+	/**The share of the average time per move a turn gets at the start and at the end of the game,
+	 * the middle of the game gets 1 + (1 - PHASE_MIN) / 2 so a whole game averages out**/
+	private static final double PHASE_MIN = 0.4;
+	/**Branching factor used before there are two iterations to measure it**/
+	private static final double DEFAULT_BRANCHING = 4;
+	/**The guessed time of an iteration is made this much longer to be on the safe side**/
+	private static final double MARGIN = 1.25;
+
+	/**The average time per move in milliseconds**/
+	private long averageMillis;
+	/**Start of the turn and the two limits, in System.nanoTime**/
+	private long start, softLimit, hardLimit;
+	/**Most branches a node can have, the number of columns**/
+	private final int maxBranching;
+	/**Nodes and time of each finished iteration of this turn, by depth, 0 if it didn't run**/
+	private final long[] iterationNodes, iterationNanos;
+	/**Time of each iteration of the last turn, by depth. For a stopped iteration it's the time it ran.**/
+	private final long[] previousNanos;
+	/**End of the last finished iteration, the next one's time is measured from here**/
+	private long lastMark;
+	/**Calls to isTimeUp left before the clock is read again**/
+	private int countdown;
+	/**Set once the hard limit is reached**/
+	private boolean expired;
+
+	/**
+	 * @param averageMillis (long) the average time per move in milliseconds
+	 * @param rows (int) the number of rows of the board
+	 * @param columns (int) the number of columns of the board
+	 */
+	public TimeManager(long averageMillis, int rows, int columns){
+		this.averageMillis = averageMillis;
+		maxBranching = columns;
+		iterationNodes = new long[rows * columns + 2];
+		iterationNanos = new long[rows * columns + 2];
+		previousNanos = new long[rows * columns + 2];
+	}
+
+	/**
+	 * setAverageMillis changes the average time per move, it's used from the next turn.
+	 * @param averageMillis (long) the average time per move in milliseconds
+	 */
+	public void setAverageMillis(long averageMillis){
+		this.averageMillis = averageMillis;
+	}
+
+	public long getAverageMillis(){
+		return averageMillis;
+	}
+
+	/**
+	 * startTurn starts the clock and sets the limits of a turn.
+	 * @param position (Board) the position of the turn
+	 */
+	public void startTurn(Board position){
+		int cells = position.getRows() * position.getColumns();
+
+		// a parabola over the game: PHASE_MIN at both ends, highest in the middle, averaging 1
+		double filled = (double) position.getMoveCount() / cells;
+		double phase = PHASE_MIN + 6 * (1 - PHASE_MIN) * filled * (1 - filled);
+		long soft = (long) (averageMillis * phase * 1000000L);
+
+		start = System.nanoTime();
+		softLimit = start + soft;
+		hardLimit = start + (long) (soft * HARD_FACTOR);
+		lastMark = start;
+		newTurn();
+	}
+
+	/**
+	 * follow gives this clock the same turn and limits as another one, for a helper thread of a
+	 * parallel search. It has to be called before the helper starts.
+	 * @param main (TimeManager) the clock of the main search thread
+	 */
+	public void follow(TimeManager main){
+		start = main.start;
+		softLimit = main.softLimit;
+		hardLimit = main.hardLimit;
+		lastMark = System.nanoTime();
+		newTurn();
+	}
+
+	/** Keeps the iteration times of the last turn and clears the ones of this turn **/
+	private void newTurn(){
+		countdown = CHECK_INTERVAL;
+		expired = false;
+		System.arraycopy(iterationNanos, 0, previousNanos, 0, iterationNanos.length);
+		Arrays.fill(iterationNodes, 0);
+		Arrays.fill(iterationNanos, 0);
+	}
+
+	/**
+	 * isTimeUp checks if the hard limit is reached. It is cheap enough to call at every node,
+	 * the clock is only read every CHECK_INTERVAL calls.
+	 * @return (boolean) true if the running iteration has to stop
+	 */
+	public boolean isTimeUp(){
+		if (expired)
+			return true;
+		if (--countdown > 0)
+			return false;
+		countdown = CHECK_INTERVAL;
+		expired = System.nanoTime() - hardLimit >= 0;
+		return expired;
+	}
+
+	/**
+	 * iterationFinished records the nodes and time of an iteration that finished, to guess the
+	 * time of the next ones.
+	 * @param depth (int) the depth of the iteration
+	 * @param nodes (long) the nodes it searched
+	 */
+	public void iterationFinished(int depth, long nodes){
+		long now = System.nanoTime();
+		iterationNodes[depth] = nodes;
+		iterationNanos[depth] = now - lastMark;
+		lastMark = now;
+	}
+
+	/**
+	 * iterationStopped records how long an iteration ran before it was stopped. The next turn
+	 * knows that the depth takes at least that long.
+	 * @param depth (int) the depth of the iteration
+	 */
+	public void iterationStopped(int depth){
+		iterationNanos[depth] = System.nanoTime() - lastMark;
+	}
+
+	/**
+	 * shouldStartIteration decides if an iteration of the given depth is worth starting: the
+	 * soft limit isn't reached and it should finish before the hard limit.
+	 * @param depth (int) the depth of the iteration
+	 * @return (boolean) true to start it
+	 */
+	public boolean shouldStartIteration(int depth){
+		long now = System.nanoTime();
+		if (expired || now - softLimit >= 0)
+			return false;
+		long last = depth >= 1 ? iterationNanos[depth - 1] : 0;
+		if (last == 0) // nothing to measure yet
+			return true;
+
+		// odd and even depths end on different players' moves, so the node counts swing back and
+		// forth. Going from the iteration two plies back is steadier when it's there.
+		long predicted;
+		if (depth >= 3 && iterationNanos[depth - 2] > 0 && iterationNodes[depth - 3] > 0){
+			double factor = (double) iterationNodes[depth - 1] / iterationNodes[depth - 3];
+			factor = Math.max(1, Math.min(factor, (double) maxBranching * maxBranching));
+			predicted = (long) (iterationNanos[depth - 2] * factor);
+		}
+		else
+			predicted = (long) (last * getBranchingFactor(depth - 1));
+		predicted = Math.max(predicted, previousNanos[depth]);
+		return now + (long) (predicted * MARGIN) - hardLimit < 0;
+	}
+
+	/**
+	 * getBranchingFactor gets how many times more nodes an iteration took than the one before it,
+	 * averaged over two plies when it can be.
+	 * @param depth (int) the depth of the later iteration
+	 * @return (double) the branching factor, between 1 and the number of columns
+	 */
+	public double getBranchingFactor(int depth){
+		double factor;
+		if (depth >= 2 && iterationNodes[depth] > 0 && iterationNodes[depth - 2] > 0)
+			factor = Math.sqrt((double) iterationNodes[depth] / iterationNodes[depth - 2]);
+		else if (depth >= 1 && iterationNodes[depth] > 0 && iterationNodes[depth - 1] > 0)
+			factor = (double) iterationNodes[depth] / iterationNodes[depth - 1];
+		else
+			factor = DEFAULT_BRANCHING;
+		// the early iterations are nearly free when the table already knows them, don't trust a huge ratio
+		return Math.max(1, Math.min(factor, maxBranching));
+	}
+
+	/** @return (long) the milliseconds since the turn started **/
+	public long getElapsedMillis(){
+		return (System.nanoTime() - start) / 1000000L;
+	}
+
+	/** @return (long) the soft limit of the turn, in milliseconds after its start **/
+	public long getSoftLimitMillis(){
+		return (softLimit - start) / 1000000L;
+	}
+}
@@ -0,0 +1,189 @@
+package com.pennypop.project.AI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table that remembers the results of positions the AI has already searched,
+ * so the same position reached through a different move order (or searched again in the next
+ * iterative deepening pass) doesn't have to be searched again.
+ *
+ * Positions are identified by the 64-bit Zobrist hash kept by the Board. Each bucket has two
+ * entries: a depth-preferred entry that is only replaced by a search that is at least as deep,
+ * and an always-replace entry that takes everything else.
+ *
+ * An entry is stored as two longs, (hash ^ data) and data. A probe only accepts the entry if
+ * xor-ing them gives back the hash, so a half-written entry is never mistaken for a real one.
+ * Entries are read and written without locks.
+ *
+ * The table can be saved with a game and loaded back (see SavedGame), so a resumed game starts
+ * with everything the AI already knew. The entries don't depend on the run of the program,
+ * since the Board's Zobrist keys are the same every time.
+ *
+ * @see Board, AlphaBetaAI
+ */
+public class TranspositionTable {
+	/** bound types: the stored score is exact, a lower bound or an upper bound of the real value **/
+	public static final int EXACT = 0, LOWER = 1, UPPER = 2;
+	/** no best move stored for the entry **/
+	public static final int NO_MOVE = -1;
+
+	/** number of longs per bucket: two entries of (hash ^ data, data) **/
+	private static final int BUCKET_LONGS = 4;
+	private static final int MAX_DEPTH = 0x3FF;
+	private static final long VALID_BIT = 1L << 63;
+
+	private final long[] table;
+	private final int bucketMask;
+
+	/**
+	 * The constructor allocates the whole table up front.
+	 * @param bucketBits (int) log2 of the number of buckets. Each bucket uses 32 bytes.
+	 */
+	public TranspositionTable(int bucketBits){
+		int buckets = 1 << bucketBits;
+		table = new long[buckets * BUCKET_LONGS];
+		bucketMask = buckets - 1;
+	}
+
+	/** Removes every entry from the table **/
+	public void clear(){
+		Arrays.fill(table, 0);
+	}
+
+	/**
+	 * This method looks up a position.
+	 * @param hash (long) the Zobrist hash of the position
+	 * @return (long) the packed entry, or 0 if the position isn't stored.
+	 * Use scoreOf, depthOf, boundOf and moveOf to read it.
+	 */
+	public long probe(long hash){
+		int i = index(hash);
+
+		long data = table[i + 1];
+		if ((table[i] ^ data) == hash && data != 0)
+			return data;
+
+		data = table[i + 3];
+		if ((table[i + 2] ^ data) == hash && data != 0)
+			return data;
+
+		return 0;
+	}
+
+	/**
+	 * This method stores the result of a search. The depth-preferred entry is replaced if the new
+	 * search is at least as deep or is for the same position, with the old entry moving down to
+	 * the always-replace entry. Otherwise the new result goes in the always-replace entry.
+	 * @param hash (long) the Zobrist hash of the position
+	 * @param depth (int) the number of plies searched below the position
+	 * @param score (int) the utility value found
+	 * @param bound (int) EXACT, LOWER or UPPER
+	 * @param move (int) the best column found, or NO_MOVE
+	 */
+	public void store(long hash, int depth, int score, int bound, int move){
+		int i = index(hash);
+		long data = pack(depth, score, bound, move);
+
+		long deepData = table[i + 1];
+		long deepHash = table[i] ^ deepData;
+
+		if (deepData == 0 || deepHash == hash || depth >= depthOf(deepData)){
+			if (deepData != 0 && deepHash != hash){
+				// keep the old deep entry around in the always-replace slot
+				table[i + 2] = deepHash ^ deepData;
+				table[i + 3] = deepData;
+			}
+			table[i] = hash ^ data;
+			table[i + 1] = data;
+		} else {
+			table[i + 2] = hash ^ data;
+			table[i + 3] = data;
+		}
+	}
+
+	/** @return (int) the number of bytes the table is saved in **/
+	public int byteSize(){
+		return table.length * 8;
+	}
+
+	/**
+	 * This method writes every entry to a file. Searches may keep storing entries while it runs,
+	 * an entry that is half written is rejected by probe when the table is loaded again.
+	 * @param channel (FileChannel) the file, written from its current position
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(FileChannel channel) throws IOException{
+		ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+		LongBuffer longs = bytes.asLongBuffer();
+		for (int i = 0; i < table.length; i += longs.capacity()){
+			int count = Math.min(longs.capacity(), table.length - i);
+			longs.clear();
+			longs.put(table, i, count);
+			bytes.clear();
+			bytes.limit(count * 8);
+			while (bytes.hasRemaining()){
+				channel.write(bytes);
+			}
+		}
+	}
+
+	/**
+	 * This method replaces every entry with the ones saved by save, reading them in blocks through
+	 * a small heap buffer. Nothing is loaded if the saved table has another size.
+	 * @param channel (FileChannel) the file, read from its current position
+	 * @param bytes (int) the size of the saved table in bytes
+	 * @return (boolean) true if the table was loaded
+	 * @throws IOException if the file can't be read or ends before the table does
+	 */
+	public boolean load(FileChannel channel, int bytes) throws IOException{
+		if (bytes != byteSize())
+			return false;
+		ByteBuffer block = ByteBuffer.allocate(1 << 16);
+		LongBuffer longs = block.asLongBuffer();
+		for (int i = 0; i < table.length; i += longs.capacity()){
+			int count = Math.min(longs.capacity(), table.length - i);
+			block.clear();
+			block.limit(count * 8);
+			while (block.hasRemaining()){
+				if (channel.read(block) < 0)
+					throw new IOException("Saved table is truncated");
+			}
+			longs.clear();
+			longs.get(table, i, count);
+		}
+		return true;
+	}
+
+	private int index(long hash){
+		return ((int)(hash ^ (hash >>> 32)) & bucketMask) * BUCKET_LONGS;
+	}
+
+	/** Packs an entry as score (32 bits), depth (10 bits), bound (2 bits), move + 1 (16 bits) and a valid bit **/
+	private static long pack(int depth, int score, int bound, int move){
+		return (score & 0xFFFFFFFFL)
+				| ((long) Math.min(depth, MAX_DEPTH) << 32)
+				| ((long) bound << 42)
+				| ((long) (move + 1) << 44)
+				| VALID_BIT;
+	}
+
+	public static int scoreOf(long entry){
+		return (int) entry;
+	}
+
+	public static int depthOf(long entry){
+		return (int) (entry >>> 32) & MAX_DEPTH;
+	}
+
+	public static int boundOf(long entry){
+		return (int) (entry >>> 42) & 0x3;
+	}
+
+	public static int moveOf(long entry){
+		return ((int) (entry >>> 44) & 0xFFFF) - 1;
+	}
+}
@@ -0,0 +1,95 @@
+package com.pennypop.project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+
+/**
+ * This class loads the textures, fonts and sounds of the screens once and shares them. It keeps
+ * them in libGDX's AssetManager, which counts the references to each file: a file is read once
+ * however many screens or buttons use it, and disposed when the last one releases it.
+ *
+ * Each screen lists its assets, acquires them in its constructor and releases them in dispose.
+ * It also acquires the assets of the screen it leads to, which are then read in the background
+ * while it's shown (update is called every frame), so the next screen doesn't wait for the disk.
+ *
+ * A screen is disposed before the next one is made, so its releases are held back until
+ * ProjectApplication.updateScreen calls releaseUnused: an asset both screens use is never
+ * disposed and read again, and going back and forth between screens doesn't grow memory.
+ *
+ * FONT is loaded when the application starts and kept until it ends.
+ */
+public class Assets {
+	/** milliseconds of each frame spent reading assets in the background **/
+	private static final int UPDATE_MILLIS = 10;
+	
+	public static final AssetDescriptor<BitmapFont> FONT = new AssetDescriptor<BitmapFont>("font.fnt", BitmapFont.class);
+	
+	private static AssetManager manager;
+	/** the assets released since the last screen change, given back to the manager by releaseUnused **/
+	private static final List<String> released = new ArrayList<String>();
+	
+	/** Makes the AssetManager and loads FONT, it must be called before any screen is made **/
+	public static void create(){
+		manager = new AssetManager();
+		manager.load(FONT);
+		manager.finishLoading();
+	}
+	
+	/**
+	 * acquire takes a reference to each asset and starts reading the ones that aren't loaded yet
+	 * in the background. Call finishLoading before getting them.
+	 * @param assets (AssetDescriptor[]) the assets to acquire
+	 */
+	public static void acquire(AssetDescriptor<?>... assets){
+		for (AssetDescriptor<?> asset : assets){
+			manager.load(asset);
+		}
+	}
+	
+	/** Waits until every asset acquired is loaded **/
+	public static void finishLoading(){
+		manager.finishLoading();
+	}
+	
+	/** Reads the assets acquired for a while, it's called every frame so they load in the background **/
+	public static void update(){
+		manager.update(UPDATE_MILLIS);
+	}
+	
+	/**
+	 * @param asset (AssetDescriptor) an asset acquired and loaded
+	 * @return (T) the shared asset, it mustn't be disposed
+	 */
+	public static <T> T get(AssetDescriptor<T> asset){
+		return manager.get(asset.fileName, asset.type);
+	}
+	
+	/**
+	 * release gives back a reference taken by acquire. The asset is disposed at the next
+	 * releaseUnused if nothing acquired it again in between.
+	 * @param assets (AssetDescriptor[]) the assets to release
+	 */
+	public static void release(AssetDescriptor<?>... assets){
+		for (AssetDescriptor<?> asset : assets){
+			released.add(asset.fileName);
+		}
+	}
+	
+	/** Disposes the assets released that nothing uses anymore, called once the new screen is made **/
+	public static void releaseUnused(){
+		for (String fileName : released){
+			manager.unload(fileName);
+		}
+		released.clear();
+	}
+	
+	/** Disposes every asset, when the application ends **/
+	public static void dispose(){
+		released.clear();
+		manager.dispose();
+	}
+}
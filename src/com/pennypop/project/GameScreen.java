@@ -1,11 +1,16 @@
 package com.pennypop.project;
 
 import java.awt.Point;
+import java.io.IOException;
 import java.util.Stack;
+import java.util.concurrent.Future;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -18,31 +23,60 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.pennypop.project.AI.AIModule;
 import com.pennypop.project.AI.AlphaBetaAI;
+import com.pennypop.project.AI.Board;
+import com.pennypop.project.AI.BoardGeometry;
+import com.pennypop.project.AI.GameRecord;
+import com.pennypop.project.AI.GameRecordWriter;
+import com.pennypop.project.AI.SavedGame;
+import com.pennypop.project.AI.OpeningBook;
+import com.pennypop.project.AI.SearchStats;
 import com.pennypop.project.buttons.MainButton;
 
 /**
  * This class controls the whole connect 4 game. The settings (dimensions, winning size, and 
  * players) of the board are initialized in the screen before this, the SettingsScreen.
+ * Its images and sound are shared through Assets, and the MainScreen's are read in the
+ * background while it's shown.
  * 
  * @author Angie
  */
 
 public class GameScreen implements Screen{
+	/** every game played is appended to this file in local storage, see GameRecord **/
+	public static final String RECORD_FILE = "games.c4r";
+	/** a game left before it's over is saved to this file in local storage, see SavedGame **/
+	public static final String SAVE_FILE = "saved_game.c4s";
+	
+	private static final AssetDescriptor<Texture> RED = new AssetDescriptor<Texture>("red.png", Texture.class);
+	private static final AssetDescriptor<Texture> YELLOW = new AssetDescriptor<Texture>("yellow.png", Texture.class);
+	private static final AssetDescriptor<Texture> BOARD = new AssetDescriptor<Texture>("board.png", Texture.class);
+	private static final AssetDescriptor<Texture> LOGO = new AssetDescriptor<Texture>("Connect4_small.png", Texture.class);
+	private static final AssetDescriptor<Texture> MAIN_BUTTON = new AssetDescriptor<Texture>("mainButton.png", Texture.class);
+	private static final AssetDescriptor<Sound> TA_DA = new AssetDescriptor<Sound>("TaDa.mp3", Sound.class);
+	/** every asset of this screen, see Assets **/
+	static final AssetDescriptor<?>[] ASSETS = {RED, YELLOW, BOARD, LOGO, MAIN_BUTTON, TA_DA};
+	
 	private final SpriteBatch spriteBatch;
 	private final ShapeRenderer sr;
 	
 	private final Stage stage;
 	private final boolean AI; // AI enabled?
 	private boolean drawRect; // is a rectangle drawn already for this column being hovered on?
-	public boolean gameOver, tiedGame, redWon;
-	private int currPlayer; // 1 = red player, 2 = yellow player/AI
 	private final Texture red, yellow; 
+	/** the AI playing yellow, null in 2 player mode **/
 	private AlphaBetaAI connectAI;
+	/** the AI's move being searched in the background, null when the AI isn't thinking **/
+	private Future<Integer> aiMove;
+	/** set when the screen is disposed so a late AI move isn't played on a dead screen **/
+	private boolean disposed;
 	private boolean sfxPlaying;
+	/** statistics of the AI's last move, shown in the top left corner when the S key is pressed **/
+	private Label statsLabel;
 	
-	/**stores arrays of previous moves' info**/
-	private Stack<Object[]> historyStack;
+	/**stores the piece actors of previous moves, the rest of each move's info is in the board**/
+	private Stack<Image> historyStack;
 	
 	/** dimensions and coordinates for the rectangle outline of columns hovered over**/
 	private float rectWidth, rectHeight, rectX, rectY;
@@ -52,10 +86,16 @@ public class GameScreen implements Screen{
 	private int boardCellWidth, boardCellHeight;
 	/** array of coordinates of each board cell's bottom left corner **/
 	private Point[][] coordinates;
-	/** 2d array of which player occupied each cell **/
-	private int[][] cellInfo;
-	/** array of the coordinates of the first unoccupied cell of each column**/
-	private Point[] firstCellUnoccupied; 
+	/** the game's state: which player occupied each cell, whose turn it is and who won. No actors. **/
+	private final Board board;
+	/** the winning lines of the board size, shared with the AI **/
+	private final BoardGeometry geometry;
+	/** the first and last cell of the line that won the game, null while nobody has won **/
+	private int[] winningLine;
+	/** was this game resumed from SAVE_FILE? **/
+	private final boolean resumed;
+	/** writes the moves of this game to RECORD_FILE as they are played, null if it can't **/
+	private GameRecordWriter recorder;
 	
 	/**
 	 * The GameScreen constructor sets up the board, player pieces, and the UI.
@@ -64,41 +104,70 @@ public class GameScreen implements Screen{
 	 * @param ai (boolean) should the AI be enabled? This will be set if 1 player option is chosen.
 	 */
 	public GameScreen(SpriteBatch spriteBatch, boolean ai){
+		this(spriteBatch, ai, null);
+	}
+	
+	/**
+	 * This constructor resumes a saved game. The board size of the SettingsScreen is set to the
+	 * saved game's.
+	 * @param spriteBatch (SpriteBatch) the sprite batch used for this whole application
+	 * @param saved (SavedGame) the game to resume, see SAVE_FILE
+	 */
+	public GameScreen(SpriteBatch spriteBatch, SavedGame saved){
+		this(spriteBatch, saved.getYellowPlayer() == GameRecord.ALPHA_BETA, saved);
+	}
+	
+	private GameScreen(SpriteBatch spriteBatch, boolean ai, SavedGame saved){
+		if (saved != null){
+			SettingsScreen.rows = saved.getRows();
+			SettingsScreen.columns = saved.getColumns();
+			SettingsScreen.win_size = saved.getWinSize();
+		}
 		this.spriteBatch = spriteBatch;
+		Assets.acquire(ASSETS);
+		Assets.finishLoading();
+		Assets.acquire(MainScreen.ASSETS); // read in the background, it's the next screen
 		sr = new ShapeRenderer();
 		stage = new Stage(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false, this.spriteBatch);
 		AI = ai;
+		resumed = saved != null;
 		drawRect = false;
-		gameOver = false;
-		tiedGame = false;
-		redWon = false;
 		sfxPlaying = false;
-		currPlayer = 1;	// red goes first
 		
-		historyStack = new Stack<Object[]>();
+		historyStack = new Stack<Image>();
 		
-		// initialize arrays
+		// initialize the board, red goes first
 		coordinates = new Point[SettingsScreen.rows][SettingsScreen.columns];
-		firstCellUnoccupied = new Point[SettingsScreen.columns];
-		cellInfo = new int[SettingsScreen.rows][SettingsScreen.columns];
+		board = Board.create(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
+		geometry = BoardGeometry.get(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
 		
 		// load the red and yellow coin pieces
-		red = new Texture(Gdx.files.internal("red.png"));
-		yellow = new Texture(Gdx.files.internal("yellow.png"));
-		
-		connectAI = new AlphaBetaAI(this);
+		red = Assets.get(RED);
+		yellow = Assets.get(YELLOW);
+		
+		if (ai){
+			connectAI = new AlphaBetaAI(this); // its tables are only allocated when it plays
+			connectAI.setPondering(true);
+			connectAI.setThreads(Runtime.getRuntime().availableProcessors());
+			loadOpeningBook();
+		}
 		
 		makeBoard();
+		if (saved != null)
+			restore(saved);
+		startRecording();
+		if (ai && board.getCurrentPlayer() == Board.RED)
+			connectAI.startPondering(board.copy()); // red is the human
 		
 		// create main menu button
 		Table buttonTab = new Table();
 		buttonTab.setFillParent(true);
 		buttonTab.bottom().left().pad(30);
-		MainButton button = new MainButton(Gdx.files.internal("mainButton.png"), this, this.spriteBatch);
+		MainButton button = new MainButton(MAIN_BUTTON, this, this.spriteBatch);
 		buttonTab.add(button.getImageButton());
 		
 		// create Connect 4 logo
-		Texture logo = new Texture(Gdx.files.internal("Connect4_small.png"));
+		Texture logo = Assets.get(LOGO);
 		Image title = new Image(logo);
 		Table titleTab = new Table();
 		titleTab.setFillParent(true);
@@ -107,6 +176,144 @@ public class GameScreen implements Screen{
 
 		stage.addActor(buttonTab);
 		stage.addActor(titleTab);
+		
+		if (ai)
+			makeStatsOverlay();
+	}
+	
+	/**
+	 * The makeStatsOverlay method sets up the AI statistics overlay. It's hidden until the S key is
+	 * pressed, and shows the depth, speed and search quality of the AI's last move.
+	 */
+	private void makeStatsOverlay(){
+		statsLabel = new Label("", new Label.LabelStyle(MainScreen.font, Color.BLACK));
+		statsLabel.setFontScale(0.5f);
+		statsLabel.setVisible(false);
+		Table statsTab = new Table();
+		statsTab.setFillParent(true);
+		statsTab.top().left().pad(20);
+		statsTab.add(statsLabel);
+		stage.addActor(statsTab);
+		
+		connectAI.addSearchListener(new AIModule.SearchListener(){
+			public void searchFinished(final SearchStats stats){
+				Gdx.app.postRunnable(new Runnable(){
+					public void run(){
+						if (!disposed)
+							statsLabel.setText(stats.toString());
+					}
+				});
+			}
+		});
+		
+		// S shows and hides the overlay
+		stage.addListener(new InputListener(){
+			public boolean keyDown(InputEvent event, int keycode){
+				if (keycode != Keys.S)
+					return false;
+				statsLabel.setVisible(!statsLabel.isVisible());
+				return true;
+			}
+		});
+	}
+	
+	/**
+	 * The loadOpeningBook method gives the AI the opening book for the current board size, if the
+	 * assets have one. The book is memory-mapped, so it must be a real file: when the asset isn't
+	 * one (inside the apk on Android, or found through the classpath on desktop) it's copied to
+	 * local storage first, and copied again if the asset changed size.
+	 */
+	private void loadOpeningBook(){
+		String name = OpeningBook.fileName(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size);
+		FileHandle file = Gdx.files.internal(name);
+		if (!file.exists())
+			return;
+		
+		try {
+			if (!file.file().exists()){
+				FileHandle local = Gdx.files.local(name);
+				if (!local.exists() || local.length() != file.length())
+					file.copyTo(local);
+				file = local;
+			}
+			connectAI.setOpeningBook(OpeningBook.open(file.file()));
+		} catch (IOException e) {
+			System.out.println(e); // play without the book
+		} catch (RuntimeException e) {
+			System.out.println(e); // libGDX throws GdxRuntimeException if the copy fails
+		}
+	}
+	
+	/**
+	 * The startRecording method opens the game record file and starts this game in it. If the
+	 * file can't be written the game is played without being recorded.
+	 */
+	private void startRecording(){
+		try {
+			recorder = new GameRecordWriter(Gdx.files.local(RECORD_FILE).file());
+			recorder.startGame(SettingsScreen.rows, SettingsScreen.columns, SettingsScreen.win_size,
+					GameRecord.HUMAN, AI ? GameRecord.ALPHA_BETA : GameRecord.HUMAN);
+			for (int i = 0; i < board.getMoveCount(); ++i){
+				recorder.move(board.getMove(i)); // the moves of a resumed game
+			}
+		} catch (IOException e) {
+			System.out.println(e);
+			stopRecording();
+		}
+	}
+	
+	/**
+	 * The restore method puts the moves of a saved game on the board and the pieces on the screen
+	 * in one pass, without checking or animating anything, and gives the AI its saved table.
+	 * @param saved (SavedGame) the game to resume, of the board size of this screen
+	 */
+	private void restore(SavedGame saved){
+		for (int i = 0; i < saved.getMoveCount(); ++i){
+			int col = saved.getMove(i);
+			historyStack.push(placePiece(board.getHeight(col), col));
+			board.play(col);
+		}
+		if (AI)
+			saved.loadTable(connectAI.getTranspositionTable());
+	}
+	
+	/**
+	 * The saveGame method saves the game to SAVE_FILE if it was started and isn't over. Otherwise
+	 * the last saved game is deleted, there is nothing to resume. A new game left before its first
+	 * move doesn't touch SAVE_FILE, the game saved there can still be resumed.
+	 * @param withTable (boolean) also save the AI's 8 MB transposition table in 1 player mode? Only
+	 * when the AI's threads have stopped, they write to the table while they search.
+	 */
+	private void saveGame(boolean withTable){
+		if (board.getMoveCount() == 0 && !resumed)
+			return;
+		FileHandle file = Gdx.files.local(SAVE_FILE);
+		if (board.getMoveCount() == 0 || board.isGameOver()){
+			file.delete();
+			return;
+		}
+		
+		try {
+			SavedGame.write(file.file(), board, AI ? GameRecord.ALPHA_BETA : GameRecord.HUMAN,
+					AI && withTable ? connectAI.getTranspositionTable() : null);
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+	}
+	
+	/**
+	 * The stopRecording method ends the recorded game, as unfinished if nobody won or tied yet, and
+	 * closes the file.
+	 */
+	private void stopRecording(){
+		if (recorder == null)
+			return;
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+		recorder = null;
 	}
 	
 	/**
@@ -116,7 +323,7 @@ public class GameScreen implements Screen{
 	 * by the mouse.
 	 */
 	private void makeBoard(){
-		Texture boardTexture = new Texture(Gdx.files.internal("board.png"));
+		Texture boardTexture = Assets.get(BOARD);
 		
 		int numCols = SettingsScreen.columns;
 		int numRows = SettingsScreen.rows;
@@ -141,9 +348,6 @@ public class GameScreen implements Screen{
 				stage.addActor(boardCell);
 				
 				coordinates[i][j] = new Point((int)x,(int)y);
-				if (i == 0){
-					firstCellUnoccupied[j] = new Point((int)x, (int)y);
-				}
 			}
 		}
 	}
@@ -167,8 +371,8 @@ public class GameScreen implements Screen{
 			}
 			
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button){
-				// play move when a column is clicked
-				if (!gameOver && !connectAI.getTurn()){
+				// play move when a column is clicked, unless it's the AI's turn
+				if (!board.isGameOver() && aiMove == null && !(AI && board.getCurrentPlayer() == Board.YELLOW)){
 					makeMove(actor.getX());
 				}
 				return true;
@@ -197,17 +401,29 @@ public class GameScreen implements Screen{
 	 * @return An int. 1 for red player, 2 for yellow player, 0 if unoccupied.
 	 */
 	public int getCellInfo(int row, int col){
-		return cellInfo[row][col];
+		return board.getCell(row, col);
 	}
 	
 	/**
 	 * This method gets the (x,y) coordinates of the bottom left corner of first unoccupied 
 	 * cell of the specified column.
 	 * @param col (int) the column index of the board cell
-	 * @return (Point) coordinates
+	 * @return (Point) coordinates, or null if the column is full
 	 */
 	public Point getFirstCellUnoccupiedCoord(int col){
-		return firstCellUnoccupied[col];
+		if (!board.canPlay(col))
+			return null;
+		return coordinates[board.getHeight(col)][col];
+	}
+	
+	/**
+	 * This method copies the game's board for an AI to simulate moves on. The copy has no
+	 * connection to the screen, so the AI can play and unplay as many moves as it wants.
+	 * @return (Board) a copy of the current state of the game
+	 * @see AlphaBetaAI
+	 */
+	public Board copyBoard(){
+		return board.copy();
 	}
 	
 	/** 
@@ -247,241 +463,140 @@ public class GameScreen implements Screen{
 		Gdx.gl.glLineWidth(5); // width of line
 		sr.begin(ShapeType.Rectangle);
 		
-		if (currPlayer == 1)
+		if (board.getCurrentPlayer() == Board.RED)
 			sr.setColor(Color.RED);
-		else if (currPlayer == 2)
+		else
 			sr.setColor(Color.valueOf("fffa00")); // sets color to a yellow shade
 		
 		sr.rect(rectX, rectY, rectWidth, rectHeight);
 		sr.end();
 	}
 	
+	/** Draws a line through the centers of the winning pieces **/
+	private void renderWinningLine(){
+		int columns = geometry.getColumns();
+		Point first = coordinates[winningLine[0] / columns][winningLine[0] % columns];
+		Point last = coordinates[winningLine[1] / columns][winningLine[1] % columns];
+		
+		Gdx.gl.glLineWidth(5);
+		sr.begin(ShapeType.Line);
+		sr.setColor(Color.BLACK);
+		sr.line(first.x + boardCellWidth/2, first.y + boardCellHeight/2, last.x + boardCellWidth/2, last.y + boardCellHeight/2);
+		sr.end();
+	}
+	
 	/** 
 	 * This method makes a move in colX, which is the x coordinate of the column to play in
 	 * @param colX (float) the x coordinate of the column to play in
 	 */
 	public void makeMove(float colX){
+		makeMoveInColumn(getColIndex(colX));
+	}
+	
+	/**
+	 * This method makes a move in the given column. This is the only place where piece actors
+	 * are created, so there is exactly one actor for every move that is actually played.
+	 * @param col (int) the column index to play in
+	 */
+	public void makeMoveInColumn(int col){
+		Image playerPiece;
+		
+		// check if move is valid;
+		if (col < 0 || !board.canPlay(col) || board.isGameOver())
+			return;
+		
+		int row = board.getHeight(col);
+		playerPiece = placePiece(row, col);
+		
+		// update the board's info, this also switches players and checks the lines through the new piece
+		board.play(col);
+		historyStack.push(playerPiece);
+		recordMove(col);
+		
+		if (board.getWinner() != Board.EMPTY)
+			findWinningLine(row, col);
+		if (board.isGameOver())
+			displayResults(board.getWinner() == Board.RED, board.getWinner() == Board.EMPTY);
+	} // end makeMoveInColumn
+	
+	/**
+	 * This method creates the current player's piece actor and puts it on the given cell.
+	 * @param row (int) the row index of the cell
+	 * @param col (int) the column index of the cell
+	 * @return (Image) the piece actor, already on the stage
+	 */
+	private Image placePiece(int row, int col){
 		float x, y;
 		Image playerPiece;
 		
 		// get the correct play piece for the current player
-		if (currPlayer == 1){
+		if (board.getCurrentPlayer() == Board.RED){
 			playerPiece = new Image(red);
 		} else {
 			playerPiece = new Image(yellow);
 		}
 		
-		int col = getColIndex(colX);
-		
-		// check if move is valid;
-		if (firstCellUnoccupied[col] == null)
-			return;
-		
-		int row = getRowIndex(firstCellUnoccupied[col].y);
-		
 		// get the piece's coordinates to draw
-		x = colX + boardCellWidth - boardCellWidth/2 - playerPiece.getWidth()/2;	
-		y = firstCellUnoccupied[col].y + boardCellHeight/2 - playerPiece.getHeight()/2;
+		x = coordinates[row][col].x + boardCellWidth - boardCellWidth/2 - playerPiece.getWidth()/2;	
+		y = coordinates[row][col].y + boardCellHeight/2 - playerPiece.getHeight()/2;
 		
 		// place piece on board
 		playerPiece.setPosition(x, y);
 		stage.addActor(playerPiece);
-		
-		// update the board's info
-		cellInfo[row][col] = currPlayer;
-		if (row == SettingsScreen.rows - 1)
-			firstCellUnoccupied[col] = null; // null means that column is full
-		else firstCellUnoccupied[col] = new Point((int)colX, firstCellUnoccupied[col].y + boardCellHeight);
-
-		// update history info
-		Object[] historyInfo = new Object[4];
-		historyInfo[0] = playerPiece;
-		historyInfo[1] = col;
-		historyInfo[2] = colX;
-		historyInfo[3] = row;
-		historyStack.push(historyInfo);
-		
-		// switch players
-		currPlayer = currPlayer%2 + 1;
-	} // end makeMove
-	
-	/** This method unmakes the most recently made move */
-	public void unMakeMove(){
-		Object[] recentHistory = historyStack.pop();
-		Image prevPiece = (Image) recentHistory[0];
-		int prevCol = (Integer) recentHistory[1];
-		float prevColX = (Float) recentHistory[2];
-		int prevRow = (Integer) recentHistory[3];
-		
-		prevPiece.remove();
-		cellInfo[prevRow][prevCol] = 0;
-		if (firstCellUnoccupied[prevCol] == null){
-			float prevRowY = coordinates[SettingsScreen.rows-1][SettingsScreen.columns-1].y;
-			firstCellUnoccupied[prevCol] = new Point((int)prevColX, (int)prevRowY);
-		} else
-			firstCellUnoccupied[prevCol] = new Point((int)prevColX, firstCellUnoccupied[prevCol].y - boardCellHeight);
-		currPlayer = currPlayer%2 + 1; // switch back to previous player
+		return playerPiece;
 	}
 	
-	/** 
-	 * This method finds if there are n consecutive pieces connected from the current cell.
-	 * This method is invoked in checkGameState.
-	 * @param row (int) the row index of the board cell
-	 * @param col (int) the column index of the board cell
-	 * @return (boolean) true if there are SettingsScreen.winning_size pieces connected in a row,
-	 * false otherwise.
+	/**
+	 * This method appends a move to the game record, and ends the record when the move ends the game.
+	 * @param col (int) the column index that was played
 	 */
-	private boolean foundConsec(int row, int col){
-		int player = cellInfo[row][col]; // get player
-		int count = 0;
-		boolean exceedLeftBounds = false;
-		boolean exceedRightBounds = false;
-		boolean exceedBottomBounds = false;
-		
-		// check left
-		if (col - (SettingsScreen.win_size - 1) >= 0){
-			for (int i = 0; i < SettingsScreen.win_size; ++i){
-				if (cellInfo[row][col-i] == player)
-					count++;
-			}
-			if (count == SettingsScreen.win_size) {
-				if (player == 1)
-					redWon = true;
-				return true;
-			}
-			count = 0; // reset
-		} else
-			exceedLeftBounds = true;
-		
-		// check left diagonal
-		if (!exceedLeftBounds && row - (SettingsScreen.win_size - 1) >= 0) {
-			for (int i = 0; i < SettingsScreen.win_size; ++i){
-				if (cellInfo[row-i][col-i] == player)
-					count++;
-			}
-			if (count == SettingsScreen.win_size) {
-				if (player == 1)
-					redWon = true;
-				return true;
-			}
-			count = 0; // reset
-		} else{
-			if (row - (SettingsScreen.win_size - 1) < 0)
-				exceedBottomBounds = true;
-		}
-		
-		// check bottom
-		if (!exceedBottomBounds){
-			for (int i = 0; i < SettingsScreen.win_size; ++i){
-				if (cellInfo[row-i][col] == player)
-					count++;
-			}
-			if (count == SettingsScreen.win_size) {
-				if (player == 1)
-					redWon = true;
-				return true;
-			}
-			count = 0;
-		}
-		
-		// check right
-		if (col + (SettingsScreen.win_size - 1) < SettingsScreen.columns) {
-			for (int i = 0; i < SettingsScreen.win_size; ++i){
-				if (cellInfo[row][col+i] == player)
-					count++;
-			}
-			if (count == SettingsScreen.win_size) {
-				if (player == 1)
-					redWon = true;
-				return true;
-			}
-			count = 0; // reset
-		} else
-			exceedRightBounds = true;
-		
-		// check right diagonal
-		if (!exceedBottomBounds && !exceedRightBounds){
-			for (int i = 0; i < SettingsScreen.win_size; ++i){
-				if (cellInfo[row-i][col+i] == player)
-					count++;
-			}
-			if (count == SettingsScreen.win_size) {
-				if (player == 1)
-					redWon = true;
-				return true;
-			}
-		}
-		
-		return false;
-	}
-	
-	/** checks for game over and tied game **/
-	private void checkGameState(){
-		int y;
-		int row;
-		int nullCount = 0;
-		
-		// check for game over
-		for (int i = 0; i < SettingsScreen.columns; ++i){
-			if (firstCellUnoccupied[i] != null)
-				y = firstCellUnoccupied[i].y;
-			else {
-				// column is full, check if the last piece is the winning player
-				if (foundConsec(SettingsScreen.rows - 1, i)){
-					gameOver = true;
-					if (!connectAI.getTurn())
-						displayResults(redWon, tiedGame);
-					return;
-				}
-				nullCount += 1;
-				continue;
-			}
-			
-			row = getRowIndex(y);
-			
-			if (row != 0){
-				if (foundConsec(row-1, i)){
-					gameOver = true;
-					if (!connectAI.getTurn())
-						displayResults(redWon, tiedGame);
-					return;
-				}					
+	private void recordMove(int col){
+		if (recorder == null)
+			return;
+		try {
+			recorder.move(col);
+			if (board.isGameOver()){
+				recorder.endGame(GameRecord.resultOf(board));
+				stopRecording();
 			}
+		} catch (IOException e) {
+			System.out.println(e);
+			stopRecording();
 		}
-		
-		// check for tied game
-		if (nullCount == SettingsScreen.columns){
-			tiedGame = true;
-			gameOver = true;
-			if (!connectAI.getTurn())
-				displayResults(redWon, tiedGame);
-		}
-	} // end checkGameState
+	}
 	
-	/** A method called by the AI to check for game over during simulation*/
+	/**
+	 * This method finds the line of the winning move so it can be drawn over the pieces.
+	 * @param row (int) the row index of the winning piece
+	 * @param col (int) the column index of the winning piece
+	 */
+	private void findWinningLine(int row, int col){
+		int window = geometry.findWinningWindow(board, row, col, board.getWinner());
+		if (window == -1)
+			return;
+		int[] cells = geometry.getWindowCells();
+		int first = cells[window * geometry.getWinSize()];
+		int last = cells[window * geometry.getWinSize() + geometry.getWinSize() - 1];
+		winningLine = new int[] {first, last};
+	}
+	
+	/** This method unmakes the most recently made move. A record can't take a move back, so the game stops being recorded. */
+	public void unMakeMove(){
+		stopRecording();
+		Image prevPiece = historyStack.pop();
+		prevPiece.remove();
+		board.undo(); // switches back to previous player
+		winningLine = null;
+	}
+	
+	/** @return (boolean) true if the game has been won or tied **/
 	public boolean isGameOver(){
-		checkGameState();
-		if (gameOver || tiedGame){
-			// sets flags back to false for the actual game
-			gameOver = false; 
-			tiedGame = false;
-			return true;
-		}else
-			return false;
+		return board.isGameOver();
 	}
 	
-	/** A method called by the AI to get the winner of the game simulation*/
+	/** @return (int) 1 if red won, 2 if yellow won, 0 if the game is tied or not over yet */
 	public int getWinner(){
-		if (redWon){
-			redWon = false; // sets flag back to false for the actual game
-			return 1;
-		}
-		else if (tiedGame){
-			tiedGame = false; // sets flag back to false for the actual game
-			return 0;
-		}
-		else // yellow won
-			return 2;
+		return board.getWinner();
 	}
 	
 	/**
@@ -511,15 +626,42 @@ public class GameScreen implements Screen{
 		// play winner sfx
 		if (!sfxPlaying){
 			sfxPlaying = true;
-			Sound sfx = Gdx.audio.newSound(Gdx.files.internal("TaDa.mp3"));
+			Sound sfx = Assets.get(TA_DA);
 			sfx.play(0.2f);
 		}
 	}
 	
+	/**
+	 * This method lets the AI search a copy of the board on its own thread, so rendering doesn't
+	 * stop while it thinks. The chosen move is played on the render thread.
+	 */
+	private void startAITurn(){
+		aiMove = connectAI.requestMove(board.copy(), new AIModule.MoveListener(){
+			public void moveChosen(final int col){
+				Gdx.app.postRunnable(new Runnable(){
+					public void run(){
+						if (disposed)
+							return; // the player went back to the main menu
+						aiMove = null;
+						makeMoveInColumn(col);
+						connectAI.startPondering(board.copy()); // think during the human's turn
+					}
+				});
+			}
+		});
+	}
+	
 	@Override
 	public void dispose() {
+		disposed = true;
+		if (AI)
+			connectAI.dispose(); // cancels the AI's search if it's still thinking and waits for it
+		saveGame(true); // so it can be resumed from the settings screen
+		stopRecording(); // the game is recorded as unfinished if it's left early
 		stage.dispose();
 		sr.dispose();
+		Assets.release(ASSETS);
+		Assets.release(MainScreen.ASSETS);
 	}
 
 	@Override
@@ -529,16 +671,17 @@ public class GameScreen implements Screen{
 
 	@Override
 	public void render(float delta) {
-		checkGameState();
 		stage.act(delta);
 		stage.draw();
 		// spriteBatch ended
 		
-		if (drawRect && !gameOver)
+		if (drawRect && !board.isGameOver())
 			renderRectOutline();
+		if (winningLine != null)
+			renderWinningLine();
 		
-		if (AI && currPlayer == 2 && !connectAI.getTurn() && !gameOver){
-			connectAI.getNextMove();
+		if (AI && board.getCurrentPlayer() == Board.YELLOW && aiMove == null && !board.isGameOver()){
+			startAITurn();
 		}
 	}
 
@@ -554,7 +697,7 @@ public class GameScreen implements Screen{
 	
 	@Override
 	public void pause() {
-		// Irrelevant on desktop, ignore this		
+		saveGame(false); // Android may close the application without disposing it, only the moves are quick to save
 	}
 
 	@Override
@@ -2,18 +2,26 @@ package com.pennypop.project;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.Color;
+import com.pennypop.project.api.ApiCache;
+import com.pennypop.project.api.ApiClient;
+import com.pennypop.project.api.Weather;
 import com.pennypop.project.buttons.APIButton;
 import com.pennypop.project.buttons.GameButton;
 import com.pennypop.project.buttons.SfxButton;
 
 /**
  * This class creates the Main Screen's UI.
+ * Its images and sound are shared through Assets, and the SettingsScreen's are read in the
+ * background while it's shown.
  * 
  * @author Richard Taylor
  * @author Angie (Wai Ying Li)
@@ -24,7 +32,21 @@ public class MainScreen implements Screen {
 	
 	public static Table rootTable;
 	private final Label pennyPopLabel;
-	public static final BitmapFont font = new BitmapFont(Gdx.files.internal("font.fnt"), Gdx.files.internal("font.png"), false);
+	public static final BitmapFont font = Assets.get(Assets.FONT); // loaded when the application starts
+	
+	private static final AssetDescriptor<Texture> SFX_BUTTON = new AssetDescriptor<Texture>("sfxButton.png", Texture.class);
+	private static final AssetDescriptor<Texture> API_BUTTON = new AssetDescriptor<Texture>("apiButton.png", Texture.class);
+	private static final AssetDescriptor<Texture> GAME_BUTTON = new AssetDescriptor<Texture>("gameButton.png", Texture.class);
+	private static final AssetDescriptor<Sound> CLICK = new AssetDescriptor<Sound>("button_click.wav", Sound.class);
+	/** every asset of this screen, see Assets **/
+	static final AssetDescriptor<?>[] ASSETS = {SFX_BUTTON, API_BUTTON, GAME_BUTTON, CLICK};
+	
+	private static final String WEATHER_URL = "http://api.openweathermap.org/data/2.5/weather?q=San%20Francisco,US&appid=2e32d2b4b825464ec8c677a49531e9ae";
+	/** milliseconds to wait for the connection to the API and for each read of its answer **/
+	private static final int CONNECT_TIMEOUT = 5000, READ_TIMEOUT = 5000;
+	/** the weather shown by the API button, shared by every main screen so a new one doesn't call the API again **/
+	private static final ApiCache<Weather> weatherCache = Weather.newCache(new ApiClient(CONNECT_TIMEOUT, READ_TIMEOUT),
+			WEATHER_URL, Gdx.files.local("weather_cache.bin").file());
 	
 	// the buttons
 	private final SfxButton sfx; 
@@ -37,6 +59,9 @@ public class MainScreen implements Screen {
 	 */
 	public MainScreen(SpriteBatch spriteBatch) {
 		this.spriteBatch = spriteBatch;
+		Assets.acquire(ASSETS);
+		Assets.finishLoading();
+		Assets.acquire(SettingsScreen.ASSETS); // read in the background, it's the next screen
 		stage = new Stage(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false, this.spriteBatch);
 		
 		// set up the root table with 2 columns to organize our widgets
@@ -49,9 +74,9 @@ public class MainScreen implements Screen {
 		pennyPopLabel = new Label("PennyPop", new Label.LabelStyle(font, Color.RED));
 		
 		// set up the 3 buttons
-		sfx = new SfxButton(Gdx.files.internal("sfxButton.png"));
-		api = new APIButton(Gdx.files.internal("apiButton.png"), col2);
-		game = new GameButton(Gdx.files.internal("gameButton.png"), this, spriteBatch);
+		sfx = new SfxButton(SFX_BUTTON, CLICK);
+		api = new APIButton(API_BUTTON, col2, weatherCache);
+		game = new GameButton(GAME_BUTTON, this, spriteBatch);
 		
 		// add in the widgets for column 1
 		col1.add(pennyPopLabel).colspan(3).padBottom(30);
@@ -69,6 +94,8 @@ public class MainScreen implements Screen {
 	@Override
 	public void dispose() {
 		stage.dispose();
+		Assets.release(ASSETS);
+		Assets.release(SettingsScreen.ASSETS);
 	}
 
 	@Override
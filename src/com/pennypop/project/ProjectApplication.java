@@ -26,6 +26,7 @@ public class ProjectApplication implements ApplicationListener {
 	@Override
 	public void create() {
 		sb = new SpriteBatch();
+		Assets.create();
 		screen = new MainScreen(sb);
 		screen.show();
 	}
@@ -34,6 +35,7 @@ public class ProjectApplication implements ApplicationListener {
 	public void dispose() {
 		screen.hide();
 		screen.dispose();
+		Assets.dispose();
 		sb.dispose();
 	}
 
@@ -45,12 +47,14 @@ public class ProjectApplication implements ApplicationListener {
 	@Override
 	public void render() {
 		clearWhite();
+		Assets.update(); // the next screen's assets are read in the background
 		screen.render(Gdx.graphics.getDeltaTime());
 	}
 	
-	/** Switches screen to newScreen**/
+	/** Switches screen to newScreen, and disposes the assets only the old screen used **/
 	public static void updateScreen(Screen newScreen) {
 		screen = newScreen;
+		Assets.releaseUnused();
 	}
 
 	/** Clears the screen with a white color */
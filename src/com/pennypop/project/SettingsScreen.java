@@ -1,17 +1,24 @@
 package com.pennypop.project;
 
+import java.io.IOException;
+
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextField;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.pennypop.project.AI.SavedGame;
 import com.pennypop.project.buttons.SinglePlayerButton;
 import com.pennypop.project.buttons.TwoPlayersButton;
 
@@ -19,7 +26,9 @@ import com.pennypop.project.buttons.TwoPlayersButton;
  * The SettingsScreen class is used to let the user specified the settings of the connect 4 game.
  * The user can specify the number of columns and rows in the board as well as the winning size 
  * of the connected line. From there, the user will have to pick either the 1-player mode, or the
- * 2-players mode.
+ * 2-players mode. If a game was left before it was over, it can be resumed from here too.
+ * Its images are shared through Assets, and the GameScreen's are read in the background while
+ * it's shown.
  * 
  * @author Angie
  *
@@ -33,6 +42,15 @@ public class SettingsScreen implements Screen{
 	public static int columns, rows;
 	public static int win_size;
 	
+	private static final AssetDescriptor<Texture> TEXT_FIELD = new AssetDescriptor<Texture>("textfield.png", Texture.class);
+	private static final AssetDescriptor<Texture> CURSOR = new AssetDescriptor<Texture>("cursor.png", Texture.class);
+	private static final AssetDescriptor<Texture> SELECTION = new AssetDescriptor<Texture>("selection.png", Texture.class);
+	private static final AssetDescriptor<Texture> TITLE = new AssetDescriptor<Texture>("Connect4.png", Texture.class);
+	private static final AssetDescriptor<Texture> ONE_PLAYER_BUTTON = new AssetDescriptor<Texture>("OnePlayerButton.png", Texture.class);
+	private static final AssetDescriptor<Texture> TWO_PLAYERS_BUTTON = new AssetDescriptor<Texture>("TwoPlayersButton.png", Texture.class);
+	/** every asset of this screen, see Assets **/
+	static final AssetDescriptor<?>[] ASSETS = {TEXT_FIELD, CURSOR, SELECTION, TITLE, ONE_PLAYER_BUTTON, TWO_PLAYERS_BUTTON};
+	
 	// input fields
 	private TextField colInput;
 	private TextField rowInput;
@@ -44,12 +62,15 @@ public class SettingsScreen implements Screen{
 	 */
 	public SettingsScreen(SpriteBatch spriteBatch) {
 		this.spriteBatch = spriteBatch;
+		Assets.acquire(ASSETS);
+		Assets.finishLoading();
+		Assets.acquire(GameScreen.ASSETS); // read in the background, it's the next screen
 		stage = new Stage(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false, this.spriteBatch);
 		
-		TextureRegionDrawable textFieldDrawable = getDrawable("textfield.png");
-		TextureRegionDrawable cursorDrawable = getDrawable("cursor.png");
-		TextureRegionDrawable selectionDrawable = getDrawable("selection.png");
-		TextureRegionDrawable titleDrawable = getDrawable("Connect4.png");
+		TextureRegionDrawable textFieldDrawable = getDrawable(TEXT_FIELD);
+		TextureRegionDrawable cursorDrawable = getDrawable(CURSOR);
+		TextureRegionDrawable selectionDrawable = getDrawable(SELECTION);
+		TextureRegionDrawable titleDrawable = getDrawable(TITLE);
 		
 		// set up labels, text fields, and button widgets
 		Image title = new Image(titleDrawable);
@@ -66,8 +87,8 @@ public class SettingsScreen implements Screen{
 		winSizeInput = new TextField("4", new TextField.TextFieldStyle(MainScreen.font, Color.BLACK, cursorDrawable, selectionDrawable, textFieldDrawable));
 		winSizeInput.setTextFieldFilter(new TextField.TextFieldFilter.DigitsOnlyFilter());
 		
-		SinglePlayerButton singleButton = new SinglePlayerButton(Gdx.files.internal("OnePlayerButton.png"), this, this.spriteBatch);
-		TwoPlayersButton twoButton = new TwoPlayersButton(Gdx.files.internal("TwoPlayersButton.png"), this, this.spriteBatch);
+		SinglePlayerButton singleButton = new SinglePlayerButton(ONE_PLAYER_BUTTON, this, this.spriteBatch);
+		TwoPlayersButton twoButton = new TwoPlayersButton(TWO_PLAYERS_BUTTON, this, this.spriteBatch);
 		
 		// set up tables and add widgets to table
 		rootTable = new Table();
@@ -97,17 +118,55 @@ public class SettingsScreen implements Screen{
 		rootTable.row();
 		rootTable.add(startButtons);
 		
+		if (Gdx.files.local(GameScreen.SAVE_FILE).exists()){
+			rootTable.row().padTop(30);
+			rootTable.add(makeResumeLabel());
+		}
+		
 		stage.addActor(rootTable);
 	}
 	
 	/**
-	 * This method loads an image file to get a TextureRegionDrawable object in order to make the
+	 * This method makes the clickable text that resumes the saved game in the GameScreen.
+	 * @return (Label) the resume label
+	 */
+	private Label makeResumeLabel(){
+		final Label resume = new Label("Resume Saved Game", new Label.LabelStyle(MainScreen.font, Color.BLACK));
+		resume.addListener(new InputListener(){
+			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button){
+				FileHandle file = Gdx.files.local(GameScreen.SAVE_FILE);
+				SavedGame saved;
+				try {
+					saved = SavedGame.open(file.file());
+				} catch (IOException e) {
+					System.out.println(e);
+					file.delete(); // it can't be resumed
+					resume.setVisible(false);
+					return true;
+				}
+				
+				// Switch to Connect 4 GameScreen with the saved game on the board
+				hide();
+				dispose();
+				
+				GameScreen gameScreen = new GameScreen(spriteBatch, saved);
+				gameScreen.show();
+				gameScreen.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+				ProjectApplication.updateScreen(gameScreen);
+				return true;
+			}
+		});
+		return resume;
+	}
+	
+	/**
+	 * This method gets a loaded image to get a TextureRegionDrawable object in order to make the
 	 * labels and image widgets in the SettingsScreen constructor.
-	 * @param string (String) the file path of the image
+	 * @param image (AssetDescriptor) the image, one of ASSETS
 	 * @return a TextureRegionDrawable of the given image
 	 */
-	private TextureRegionDrawable getDrawable(String string){
-		Texture texture = new Texture(string); 
+	private TextureRegionDrawable getDrawable(AssetDescriptor<Texture> image){
+		Texture texture = Assets.get(image);
 		TextureRegion textureReg = new TextureRegion(texture);
 		TextureRegionDrawable drawable = new TextureRegionDrawable(textureReg);
 		return drawable;
@@ -126,6 +185,8 @@ public class SettingsScreen implements Screen{
 	@Override
 	public void dispose() {
 		stage.dispose();
+		Assets.release(ASSETS);
+		Assets.release(GameScreen.ASSETS);
 	}
 
 	@Override
@@ -0,0 +1,221 @@
+package com.pennypop.project.api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This class keeps the parsed answer of one API URL, so asking for it again doesn't go to the
+ * network. The answer is kept in memory and in a small file, so it survives restarts too.
+ *
+ * An answer is:
+ * <ul>
+ * <li>fresh for ttl milliseconds after it was fetched: get hands it out right away and nothing
+ * else happens.</li>
+ * <li>stale for staleMillis more: get still hands it out right away, and revalidates it in the
+ * background with a conditional request (If-None-Match and If-Modified-Since). If the server
+ * has a new answer, the callback gets it too.</li>
+ * <li>too old after that: get fetches it again (conditionally) and the callback waits.</li>
+ * </ul>
+ * When a fetch fails, the callback gets the last answer however old it is, and only fails if
+ * there has never been one.
+ *
+ * The file is:
+ * <br>magic (int), version (byte), URL (UTF), fetch time (long), ETag (UTF), Last-Modified (UTF),
+ * then the answer written by the Codec. An empty ETag or Last-Modified means there was none.
+ * <br>The file is only read the first time get is called and written after every fetch, on
+ * the ApiClient's thread and outside the lock get takes.
+ *
+ * @see ApiClient, com.pennypop.project.buttons.APIButton
+ */
+public class ApiCache<T> {
+	private static final int MAGIC = 0x43344143; // "C4AC"
+	private static final int VERSION = 1;
+	
+	private final ApiClient client;
+	private final String url;
+	private final ApiClient.ResponseParser<T> parser;
+	private final Codec<T> codec;
+	private final File file;
+	private final long ttl, staleMillis;
+	
+	// the answer, guarded by this
+	private T value;
+	/** when the answer was fetched or last revalidated, in System.currentTimeMillis **/
+	private long fetchedAt;
+	private String etag, lastModified;
+	/** has the file been read? **/
+	private boolean loaded;
+	
+	/** held while the file is written, instead of this, so get doesn't wait for the disk **/
+	private final Object fileLock = new Object();
+	/** the fetch time of the answer in the file, guarded by fileLock **/
+	private long savedAt;
+	
+	/**
+	 * A Codec writes an answer to the cache file and reads it back.
+	 */
+	public interface Codec<T> {
+		void write(T value, DataOutputStream out) throws IOException;
+		
+		T read(DataInputStream in) throws IOException;
+	}
+	
+	/**
+	 * @param client (ApiClient) makes the requests
+	 * @param url (String) the URL of the API
+	 * @param parser (ResponseParser) reads the body of the API's answer
+	 * @param codec (Codec) writes and reads the answer in the file
+	 * @param file (File) where the answer is kept between runs
+	 * @param ttl (long) milliseconds an answer is fresh
+	 * @param staleMillis (long) milliseconds after that an answer can still be shown while it's revalidated
+	 */
+	public ApiCache(ApiClient client, String url, ApiClient.ResponseParser<T> parser, Codec<T> codec, File file,
+			long ttl, long staleMillis){
+		this.client = client;
+		this.url = url;
+		this.parser = parser;
+		this.codec = codec;
+		this.file = file;
+		this.ttl = ttl;
+		this.staleMillis = staleMillis;
+	}
+	
+	/**
+	 * get gets the answer. A fresh or stale answer is handed to the callback before get returns,
+	 * on the calling thread. Otherwise the callback is called on the ApiClient's thread when the
+	 * answer arrives. A stale answer that turns out to be out of date is followed by the new one,
+	 * so the callback can be called twice.
+	 * @param callback (Callback) gets the answer or the error
+	 * @return (boolean) true if the callback already got the answer
+	 */
+	public boolean get(final ApiClient.Callback<T> callback){
+		T cached;
+		long age;
+		String etag, lastModified;
+		synchronized (this){
+			if (!loaded){
+				loaded = true;
+				load();
+			}
+			cached = value;
+			age = System.currentTimeMillis() - fetchedAt;
+			etag = this.etag;
+			lastModified = this.lastModified;
+		}
+		
+		if (cached != null && age < ttl){
+			callback.succeeded(cached);
+			return true;
+		}
+		
+		final boolean answered = cached != null && age < ttl + staleMillis;
+		if (answered)
+			callback.succeeded(cached);
+		client.getIfModified(url, etag, lastModified, parser, new ApiClient.Callback<ApiResponse<T>>(){
+			public void succeeded(ApiResponse<T> response){
+				T result = store(response);
+				if (!answered || !response.isNotModified())
+					callback.succeeded(result);
+			}
+			
+			public void failed(IOException e){
+				T old;
+				synchronized (ApiCache.this){
+					old = value;
+				}
+				if (old == null)
+					callback.failed(e);
+				else if (!answered)
+					callback.succeeded(old); // better an old answer than none
+			}
+		});
+		return answered;
+	}
+	
+	/**
+	 * store keeps the answer of a request and writes it to the file. The file is written after
+	 * the lock is released, so a get on the render thread never waits for the disk.
+	 * @param response (ApiResponse) the answer, or that the kept one is still current
+	 * @return (T) the current answer
+	 */
+	private T store(ApiResponse<T> response){
+		T current;
+		long time;
+		String tag, modified;
+		synchronized (this){
+			if (!response.isNotModified())
+				value = response.getValue();
+			fetchedAt = System.currentTimeMillis();
+			etag = response.getETag();
+			lastModified = response.getLastModified();
+			current = value;
+			time = fetchedAt;
+			tag = etag;
+			modified = lastModified;
+		}
+		save(current, time, tag, modified);
+		return current;
+	}
+	
+	/** Reads the answer kept by the last run, if there is one for this URL **/
+	private void load(){
+		if (!file.exists())
+			return;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readByte() != VERSION || !in.readUTF().equals(url))
+					return;
+				long time = in.readLong();
+				String tag = in.readUTF();
+				String modified = in.readUTF();
+				value = codec.read(in);
+				fetchedAt = time;
+				etag = tag.length() == 0 ? null : tag;
+				lastModified = modified.length() == 0 ? null : modified;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			System.out.println(e); // start without it
+		}
+	}
+	
+	/**
+	 * save writes an answer to a temporary file first, so a failed write never leaves half an
+	 * answer. Saves of two requests that finish together are written one at a time, and an answer
+	 * older than the one in the file is not written.
+	 */
+	private void save(T value, long fetchedAt, String etag, String lastModified){
+		synchronized (fileLock){
+			if (fetchedAt < savedAt)
+				return;
+			savedAt = fetchedAt;
+			File temp = new File(file.getPath() + ".tmp");
+			try {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+				try {
+					out.writeInt(MAGIC);
+					out.writeByte(VERSION);
+					out.writeUTF(url);
+					out.writeLong(fetchedAt);
+					out.writeUTF(etag == null ? "" : etag);
+					out.writeUTF(lastModified == null ? "" : lastModified);
+					codec.write(value, out);
+				} finally {
+					out.close();
+				}
+				if (file.exists() && !file.delete() || !temp.renameTo(file))
+					throw new IOException("Can't replace " + file);
+			} catch (IOException e) {
+				System.out.println(e); // it's only kept in memory then
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package com.pennypop.project.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class fetches web APIs on background threads, so a slow server never stops the render
+ * thread. Every request has a connect timeout and a read timeout, and fails with an IOException
+ * when either runs out.
+ *
+ * A request for a URL that is already being fetched doesn't start a new one: its callback waits
+ * for the request in flight and gets the same result. So clicking a button again while it's
+ * loading costs nothing.
+ *
+ * getIfModified makes a conditional request with the ETag and Last-Modified of the copy the
+ * caller already has, the server can then answer 304 Not Modified without a body.
+ *
+ * Callbacks are called on the client's thread, anything touching the UI must be posted to the
+ * render thread (e.g. with Gdx.app.postRunnable).
+ *
+ * @see com.pennypop.project.buttons.APIButton
+ */
+public class ApiClient {
+	private final int connectTimeout, readTimeout;
+	private final ExecutorService threads;
+	/** the callbacks waiting for each request being made, by URL and validators, guarded by itself **/
+	private final Map<String, List<Callback<?>>> inFlight = new HashMap<String, List<Callback<?>>>();
+	
+	/**
+	 * A ResponseParser turns the body of a response into the object the caller wants.
+	 */
+	public interface ResponseParser<T> {
+		T parse(InputStream body) throws IOException;
+	}
+	
+	/**
+	 * A Callback gets the result of a request: the parsed response, or why it failed.
+	 */
+	public interface Callback<T> {
+		void succeeded(T result);
+	
+		void failed(IOException e);
+	}
+	
+	/**
+	 * @param connectTimeout (int) milliseconds to wait for the connection to the server
+	 * @param readTimeout (int) milliseconds to wait for each read of the response
+	 */
+	public ApiClient(int connectTimeout, int readTimeout){
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		threads = Executors.newCachedThreadPool(new ThreadFactory(){
+			public Thread newThread(Runnable r){
+				Thread thread = new Thread(r, "ApiClient");
+				thread.setDaemon(true); // don't keep the application alive
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * get fetches a URL in the background. If the URL is already being fetched, the callback
+	 * gets the result of that request instead, so the same URL must always be fetched with the
+	 * same parser.
+	 * @param url (String) the URL to fetch
+	 * @param parser (ResponseParser) reads the body of the response
+	 * @param callback (Callback) gets the parsed response or the error
+	 * @return (boolean) true if a new request was started, false if it joined the one in flight
+	 */
+	public <T> boolean get(String url, ResponseParser<T> parser, final Callback<T> callback){
+		return request(url, null, null, parser, new Callback<ApiResponse<T>>(){
+			public void succeeded(ApiResponse<T> response){
+				callback.succeeded(response.getValue());
+			}
+			
+			public void failed(IOException e){
+				callback.failed(e);
+			}
+		});
+	}
+	
+	/**
+	 * getIfModified fetches a URL in the background unless the caller's copy is still current.
+	 * Like get, it joins the same request if it's already in flight.
+	 * @param url (String) the URL to fetch
+	 * @param etag (String) the ETag of the caller's copy, null if there is none
+	 * @param lastModified (String) the Last-Modified of the caller's copy, null if there is none
+	 * @param parser (ResponseParser) reads the body of the response
+	 * @param callback (Callback) gets the response or the error
+	 * @return (boolean) true if a new request was started, false if it joined the one in flight
+	 */
+	public <T> boolean getIfModified(String url, String etag, String lastModified, ResponseParser<T> parser,
+			Callback<ApiResponse<T>> callback){
+		return request(url, etag, lastModified, parser, callback);
+	}
+	
+	/** Starts a request or joins the same one in flight, see getIfModified **/
+	private <T> boolean request(final String url, final String etag, final String lastModified,
+			final ResponseParser<T> parser, Callback<ApiResponse<T>> callback){
+		final String key = url + "\n" + etag + "\n" + lastModified;
+		synchronized (inFlight){
+			List<Callback<?>> waiting = inFlight.get(key);
+			if (waiting != null){
+				waiting.add(callback);
+				return false;
+			}
+			waiting = new ArrayList<Callback<?>>();
+			waiting.add(callback);
+			inFlight.put(key, waiting);
+		}
+		
+		threads.execute(new Runnable(){
+			public void run(){
+				ApiResponse<T> result = null;
+				IOException error = null;
+				try {
+					result = fetch(url, etag, lastModified, parser);
+				} catch (IOException e) {
+					error = e;
+				} catch (RuntimeException e) {
+					error = new IOException(e); // e.g. a parser that didn't find what it needs
+				}
+				finish(key, result, error);
+			}
+		});
+		return true;
+	}
+	
+	/**
+	 * fetch does the request on the calling thread.
+	 * @param url (String) the URL to fetch
+	 * @param etag (String) sent as If-None-Match, or null
+	 * @param lastModified (String) sent as If-Modified-Since, or null
+	 * @param parser (ResponseParser) reads the body of the response
+	 * @return (ApiResponse) the parsed response, or that it wasn't modified
+	 * @throws IOException if the server can't be reached, answers with an error or times out
+	 */
+	private <T> ApiResponse<T> fetch(String url, String etag, String lastModified, ResponseParser<T> parser) throws IOException{
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setConnectTimeout(connectTimeout);
+		connection.setReadTimeout(readTimeout);
+		if (etag != null)
+			connection.setRequestProperty("If-None-Match", etag);
+		if (lastModified != null)
+			connection.setRequestProperty("If-Modified-Since", lastModified);
+		try {
+			int status = connection.getResponseCode();
+			String newETag = connection.getHeaderField("ETag");
+			String newLastModified = connection.getHeaderField("Last-Modified");
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED && (etag != null || lastModified != null)){
+				// a 304 may leave out the validators, the old ones are still good then
+				return new ApiResponse<T>(null, true, newETag != null ? newETag : etag,
+						newLastModified != null ? newLastModified : lastModified);
+			}
+			if (status != HttpURLConnection.HTTP_OK)
+				throw new IOException("HTTP " + status + " from " + url);
+			
+			InputStream body = connection.getInputStream();
+			try {
+				return new ApiResponse<T>(parser.parse(body), false, newETag, newLastModified);
+			} finally {
+				body.close();
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+	
+	/** Hands the result of a request to every callback that waited for it **/
+	@SuppressWarnings("unchecked")
+	private <T> void finish(String key, ApiResponse<T> result, IOException error){
+		List<Callback<?>> waiting;
+		synchronized (inFlight){
+			waiting = inFlight.remove(key);
+		}
+		for (Callback<?> callback : waiting){
+			if (error == null)
+				((Callback<ApiResponse<T>>) callback).succeeded(result);
+			else
+				callback.failed(error);
+		}
+	}
+	
+	/** Stops the threads, requests in flight are abandoned without calling their callbacks **/
+	public void shutdown(){
+		threads.shutdownNow();
+	}
+}
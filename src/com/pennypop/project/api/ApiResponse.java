@@ -0,0 +1,42 @@
+package com.pennypop.project.api;
+
+/**
+ * The answer to a conditional request (see ApiClient.getIfModified): the parsed body, or that the
+ * copy the caller has is still current, along with the validators to send next time.
+ */
+public class ApiResponse<T> {
+	private final T value;
+	private final boolean notModified;
+	private final String etag, lastModified;
+	
+	/**
+	 * @param value (T) the parsed body, null if it wasn't modified
+	 * @param notModified (boolean) true if the server answered 304 Not Modified
+	 * @param etag (String) the ETag header of the answer, null if it has none
+	 * @param lastModified (String) the Last-Modified header of the answer, null if it has none
+	 */
+	public ApiResponse(T value, boolean notModified, String etag, String lastModified){
+		this.value = value;
+		this.notModified = notModified;
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+	
+	/** @return (T) the parsed body, null if it wasn't modified **/
+	public T getValue(){
+		return value;
+	}
+	
+	/** @return (boolean) true if the caller's copy is still current and there is no body **/
+	public boolean isNotModified(){
+		return notModified;
+	}
+	
+	public String getETag(){
+		return etag;
+	}
+	
+	public String getLastModified(){
+		return lastModified;
+	}
+}
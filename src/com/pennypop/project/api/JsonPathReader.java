@@ -0,0 +1,342 @@
+package com.pennypop.project.api;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class picks a few values out of a JSON document without building the whole tree. It's
+ * given the paths of the values it wants, e.g. "name", "main.temp" or "weather[0].description",
+ * and reads the document once from the start:
+ * <ul>
+ * <li>objects and arrays on the way to a wanted path are read key by key,</li>
+ * <li>everything else is skipped over without making any objects,</li>
+ * <li>it stops reading as soon as it has every value, the rest of the document is never read.</li>
+ * </ul>
+ * The characters are read in bulk into a buffer, so the Reader needn't be buffered.
+ *
+ * A value is a String, a Double, a Boolean or null. A path that names an object or an array
+ * gets no value. The parts of the document that are skipped are only checked enough to find
+ * where they end.
+ *
+ * A ResponseParser for any JSON API can use it, e.g. WeatherParser:
+ * <pre>
+ * JsonPathReader json = new JsonPathReader(reader, "name", "main.temp");
+ * json.read();
+ * String city = json.getString("name");
+ * </pre>
+ */
+public class JsonPathReader {
+	private static final int BUFFER_SIZE = 8192;
+	
+	private final Reader in;
+	private final String[] paths;
+	private final Map<String, Object> values = new HashMap<String, Object>();
+	
+	private final char[] buffer = new char[BUFFER_SIZE];
+	/** the next character to read in buffer, and the end of what was read into it **/
+	private int position, limit;
+	/** characters read before the buffer, to say where the JSON is wrong **/
+	private long offset;
+	/** reused for the strings and numbers read **/
+	private final StringBuilder text = new StringBuilder();
+	
+	/**
+	 * @param in (Reader) the JSON document
+	 * @param paths (String[]) the paths of the values wanted, keys separated by dots and array indexes in brackets
+	 */
+	public JsonPathReader(Reader in, String... paths){
+		this.in = in;
+		this.paths = paths;
+	}
+	
+	/**
+	 * read reads the document until it has found every path, or to its end.
+	 * @return (Map) the values found by path, see getString and getDouble
+	 * @throws IOException if the document can't be read or isn't JSON
+	 */
+	public Map<String, Object> read() throws IOException{
+		readValue("");
+		return Collections.unmodifiableMap(values);
+	}
+	
+	/**
+	 * @param path (String) one of the paths wanted
+	 * @return (String) the string at the path
+	 * @throws IOException if read didn't find a string there
+	 */
+	public String getString(String path) throws IOException{
+		Object value = values.get(path);
+		if (!(value instanceof String))
+			throw new IOException("No string at " + path);
+		return (String) value;
+	}
+	
+	/**
+	 * @param path (String) one of the paths wanted
+	 * @return (double) the number at the path
+	 * @throws IOException if read didn't find a number there
+	 */
+	public double getDouble(String path) throws IOException{
+		Object value = values.get(path);
+		if (!(value instanceof Double))
+			throw new IOException("No number at " + path);
+		return (Double) value;
+	}
+	
+	/**
+	 * readValue reads the value at a path, or skips it if no wanted path is in it.
+	 * @param path (String) the path of the value
+	 * @return (boolean) true once every path has been found
+	 */
+	private boolean readValue(String path) throws IOException{
+		char c = peek();
+		if (!leadsTo(path)){
+			skipValue();
+			return false;
+		}
+		
+		switch (c){
+		case '{':
+			return readObject(path);
+		case '[':
+			return readArray(path);
+		case '"':
+			position++;
+			return found(path, readString());
+		case 't':
+			expect("true");
+			return found(path, Boolean.TRUE);
+		case 'f':
+			expect("false");
+			return found(path, Boolean.FALSE);
+		case 'n':
+			expect("null");
+			return found(path, null);
+		default:
+			return found(path, readNumber());
+		}
+	}
+	
+	private boolean readObject(String path) throws IOException{
+		position++; // {
+		if (peek() == '}'){
+			position++;
+			return false;
+		}
+		while (true){
+			if (next() != '"')
+				throw error("Expected a key");
+			String key = readString();
+			if (next() != ':')
+				throw error("Expected :");
+			if (readValue(path.length() == 0 ? key : path + "." + key))
+				return true;
+			
+			char c = next();
+			if (c == '}')
+				return false;
+			if (c != ',')
+				throw error("Expected , or }");
+		}
+	}
+	
+	private boolean readArray(String path) throws IOException{
+		position++; // [
+		if (peek() == ']'){
+			position++;
+			return false;
+		}
+		for (int i = 0; ; ++i){
+			if (readValue(path + "[" + i + "]"))
+				return true;
+			
+			char c = next();
+			if (c == ']')
+				return false;
+			if (c != ',')
+				throw error("Expected , or ]");
+		}
+	}
+	
+	/**
+	 * found keeps a value if its path is wanted.
+	 * @return (boolean) true once every path has been found
+	 */
+	private boolean found(String path, Object value){
+		for (String wanted : paths){
+			if (wanted.equals(path)){
+				values.put(path, value);
+				break;
+			}
+		}
+		return values.size() == paths.length;
+	}
+	
+	/**
+	 * @param path (String) the path of a value
+	 * @return (boolean) true if the path is wanted or a wanted path is inside it
+	 */
+	private boolean leadsTo(String path){
+		if (path.length() == 0)
+			return true;
+		for (String wanted : paths){
+			if (wanted.startsWith(path) && (wanted.length() == path.length()
+					|| wanted.charAt(path.length()) == '.' || wanted.charAt(path.length()) == '['))
+				return true;
+		}
+		return false;
+	}
+	
+	/** Reads the rest of a string after its opening quote, copying the runs between escapes in one go **/
+	private String readString() throws IOException{
+		text.setLength(0);
+		while (true){
+			if (position == limit && !fill())
+				throw error("Unterminated string");
+			int start = position;
+			while (position < limit && buffer[position] != '"' && buffer[position] != '\\'){
+				position++;
+			}
+			text.append(buffer, start, position - start);
+			if (position == limit)
+				continue;
+			
+			if (buffer[position++] == '"')
+				return text.toString();
+			char escape = readChar();
+			switch (escape){
+			case 'b': text.append('\b'); break;
+			case 'f': text.append('\f'); break;
+			case 'n': text.append('\n'); break;
+			case 'r': text.append('\r'); break;
+			case 't': text.append('\t'); break;
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; ++i){
+					int digit = Character.digit(readChar(), 16);
+					if (digit < 0)
+						throw error("Bad \\u escape");
+					code = code*16 + digit;
+				}
+				text.append((char) code);
+				break;
+			default:
+				text.append(escape); // " \ /
+			}
+		}
+	}
+	
+	private Double readNumber() throws IOException{
+		text.setLength(0);
+		while (position < limit || fill()){
+			char c = buffer[position];
+			if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E')
+				break;
+			text.append(c);
+			position++;
+		}
+		try {
+			return Double.valueOf(text.toString());
+		} catch (NumberFormatException e) {
+			throw error("Expected a value");
+		}
+	}
+	
+	/** Skips a value of any kind, only looking at the brackets and strings in it **/
+	private void skipValue() throws IOException{
+		char c = peek();
+		if (c != '{' && c != '['){
+			if (c == '"'){
+				position++;
+				skipString();
+			}
+			else {
+				// a number, true, false or null ends at the next delimiter
+				while ((position < limit || fill()) && ",}] \t\r\n".indexOf(buffer[position]) < 0){
+					position++;
+				}
+			}
+			return;
+		}
+		
+		int depth = 0;
+		do {
+			if (position == limit && !fill())
+				throw error("Unexpected end");
+			c = buffer[position++];
+			if (c == '"')
+				skipString();
+			else if (c == '{' || c == '[')
+				depth++;
+			else if (c == '}' || c == ']')
+				depth--;
+		} while (depth > 0);
+	}
+	
+	/** Skips the rest of a string after its opening quote **/
+	private void skipString() throws IOException{
+		while (true){
+			char c = readChar();
+			if (c == '"')
+				return;
+			if (c == '\\')
+				readChar();
+		}
+	}
+	
+	private void expect(String literal) throws IOException{
+		for (int i = 0; i < literal.length(); ++i){
+			if (readChar() != literal.charAt(i))
+				throw error("Expected " + literal);
+		}
+	}
+	
+	/** @return (char) the next character that isn't whitespace, without reading it **/
+	private char peek() throws IOException{
+		while (true){
+			if (position == limit && !fill())
+				throw error("Unexpected end");
+			char c = buffer[position];
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+				return c;
+			position++;
+		}
+	}
+	
+	/** @return (char) the next character that isn't whitespace **/
+	private char next() throws IOException{
+		char c = peek();
+		position++;
+		return c;
+	}
+	
+	/** @return (char) the next character, whitespace or not **/
+	private char readChar() throws IOException{
+		if (position == limit && !fill())
+			throw error("Unexpected end");
+		return buffer[position++];
+	}
+	
+	/**
+	 * fill reads the next block of characters into the buffer.
+	 * @return (boolean) false at the end of the document
+	 */
+	private boolean fill() throws IOException{
+		offset += limit;
+		position = limit = 0;
+		int count;
+		while ((count = in.read(buffer, 0, buffer.length)) == 0){
+		}
+		if (count < 0)
+			return false;
+		limit = count;
+		return true;
+	}
+	
+	private IOException error(String message){
+		return new IOException(message + " at character " + (offset + position) + " of the JSON");
+	}
+}
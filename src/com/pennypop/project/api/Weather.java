@@ -0,0 +1,80 @@
+package com.pennypop.project.api;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The current weather of a city, the part of the Open Weather API's answer the main screen shows.
+ *
+ * @see WeatherParser
+ */
+public class Weather {
+	/** milliseconds the weather is shown without asking the API, and how much longer it's shown while the API is asked **/
+	public static final long TTL = 5*60*1000, STALE = 60*60*1000;
+	
+	/** writes a Weather in the ApiCache's file and reads it back **/
+	public static final ApiCache.Codec<Weather> CODEC = new ApiCache.Codec<Weather>(){
+		public void write(Weather weather, DataOutputStream out) throws IOException{
+			out.writeUTF(weather.city);
+			out.writeUTF(weather.description);
+			out.writeDouble(weather.kelvin);
+			out.writeDouble(weather.windSpeed);
+		}
+		
+		public Weather read(DataInputStream in) throws IOException{
+			return new Weather(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble());
+		}
+	};
+	
+	/**
+	 * newCache makes the cache the main screen keeps the weather in, for the real API or a stub.
+	 * @param client (ApiClient) makes the requests
+	 * @param url (String) the URL of the weather API
+	 * @param file (File) where the weather is kept between runs
+	 * @return (ApiCache) a cache that keeps the weather for TTL, and shows it for STALE more while it's revalidated
+	 */
+	public static ApiCache<Weather> newCache(ApiClient client, String url, File file){
+		return new ApiCache<Weather>(client, url, new WeatherParser(), CODEC, file, TTL, STALE);
+	}
+	
+	private final String city;
+	private final String description;
+	private final double kelvin;
+	private final double windSpeed;
+	
+	/**
+	 * @param city (String) the name of the city
+	 * @param description (String) the weather in words, e.g. "light rain"
+	 * @param kelvin (double) the temperature in kelvin
+	 * @param windSpeed (double) the wind speed, in the units the API was asked for
+	 */
+	public Weather(String city, String description, double kelvin, double windSpeed){
+		this.city = city;
+		this.description = description;
+		this.kelvin = kelvin;
+		this.windSpeed = windSpeed;
+	}
+	
+	public String getCity(){
+		return city;
+	}
+	
+	public String getDescription(){
+		return description;
+	}
+	
+	public double getKelvin(){
+		return kelvin;
+	}
+	
+	/** @return (double) the temperature in degrees fahrenheit **/
+	public double getFahrenheit(){
+		return (9.0/5.0)*(kelvin - 273) + 32;
+	}
+	
+	public double getWindSpeed(){
+		return windSpeed;
+	}
+}
@@ -0,0 +1,29 @@
+package com.pennypop.project.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * This class reads the Open Weather API's JSON answer into a Weather.
+ * A JsonPathReader picks out the four values shown, and stops reading once it has them.
+ */
+public class WeatherParser implements ApiClient.ResponseParser<Weather> {
+	private static final String CITY = "name", DESCRIPTION = "weather[0].description", TEMP = "main.temp",
+			WIND_SPEED = "wind.speed";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	/**
+	 * This method reads the API's JSON and picks out the weather.
+	 * @param body (InputStream) the body of the API's response
+	 * @return (Weather) the weather
+	 * @throws IOException if the body can't be read or isn't the JSON expected
+	 */
+	public Weather parse(InputStream body) throws IOException{
+		JsonPathReader json = new JsonPathReader(new InputStreamReader(body, UTF_8), CITY, DESCRIPTION, TEMP, WIND_SPEED);
+		json.read();
+		return new Weather(json.getString(CITY), json.getString(DESCRIPTION), json.getDouble(TEMP),
+				json.getDouble(WIND_SPEED));
+	}
+}
@@ -1,31 +1,40 @@
 package com.pennypop.project.buttons;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.pennypop.project.MainScreen;
+import com.pennypop.project.api.ApiCache;
+import com.pennypop.project.api.ApiClient;
+import com.pennypop.project.api.Weather;
 
-import org.json.*;
-
-import java.io.*;
-import java.net.URL;
-import java.nio.charset.Charset;
+import java.io.IOException;
 
 /**
  * This button class creates an Image button for the API button in the Main Screen. It will add a click event
  * to the API button that will call the open weather map API for SF when clicked. The weather 
  * info will be displayed on the right side of the Main screen.
+ * 
+ * The API is called in the background by an ApiClient, so the screen keeps rendering while it
+ * waits. col2 says the weather is loading until the answer is put in on the render thread.
+ * Clicks while the weather is loading don't call the API again.
+ * 
+ * The weather is kept by an ApiCache, in memory and in a file, so it's shown at once when it's
+ * younger than Weather.TTL, even after a restart. Older weather is still shown at once for
+ * Weather.STALE more, and replaced if the API has newer weather. The cache, and the API's URL
+ * in it, is given to the constructor, so the button can be pointed at a stub server.
  * @author Angie (Wai Ying Li)
  */
 public class APIButton extends PennyPopButtons{
 	private Table col2; // A second table to add to the MainScreen's root table to act as the right column
-	private static final String URL = "http://api.openweathermap.org/data/2.5/weather?q=San%20Francisco,US&appid=2e32d2b4b825464ec8c677a49531e9ae";
+	/** keeps the weather and calls the API when it's too old, given by the MainScreen **/
+	private final ApiCache<Weather> weatherCache;
 	
 	// JSON info to get from API
 	private String city;
@@ -36,12 +45,14 @@ public class APIButton extends PennyPopButtons{
 	/**
 	 * The constructor will initialize the API button with the given file image 
 	 * and gets the table to put the weather info in later. A click event is added to the ImageButton as well.
-	 * @param image (FileHandle) the file of the button's image
+	 * @param image (AssetDescriptor) the button's image, loaded by the screen
 	 * @param col2 (Table) a table to hold the weather information to be rendered
+	 * @param weatherCache (ApiCache) the weather, see Weather.newCache
 	 */
-	public APIButton(FileHandle image, Table col2){
+	public APIButton(AssetDescriptor<Texture> image, Table col2, ApiCache<Weather> weatherCache){
 		super(image);
 		this.col2 = col2;
+		this.weatherCache = weatherCache;
 		addClickEvent(imgButton);
 	}
 
@@ -50,15 +61,7 @@ public class APIButton extends PennyPopButtons{
 		InputListener listener = new InputListener(){
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button){
 				// display SF weather info when clicked
-				try{
-					JSONObject weatherInfo = readJSON();
-					addWeatherToTable(weatherInfo);
-				} catch(IOException e) {
-					System.out.println(e);
-				} catch(JSONException e) {
-					System.out.println(e);
-				}
-				
+				fetchWeather();
 				return true;
 			}
 		};
@@ -67,60 +70,56 @@ public class APIButton extends PennyPopButtons{
 	}
 	
 	/**
-	 * This method goes to the API's URL to fetch the JSON info into a JSONObject.
-	 * @return (JSONObject) the API's JSON
-	 * @throws IOException
-	 * @throws JSONException
+	 * This method asks the cache for the weather, and shows that it's loading if the cache has to
+	 * wait for the API. The answer is put in col2 on the render thread.
 	 */
-	private JSONObject readJSON() throws IOException, JSONException {
-		InputStream is = new URL(URL).openStream();
-		
-		// parse in Open weather API's JSON
-		try {
-				BufferedReader reader = new BufferedReader(new InputStreamReader(is, Charset.forName("UTF-8")));
-				String jsonText = readAll(reader);
-				JSONObject json = new JSONObject(jsonText);
-				return json;
-	    } finally {
-	    	is.close();
-	    }
+	private void fetchWeather(){
+		boolean cached = weatherCache.get(new ApiClient.Callback<Weather>(){
+			public void succeeded(final Weather weather){
+				Gdx.app.postRunnable(new Runnable(){
+					public void run(){
+						addWeatherToTable(weather);
+					}
+				});
+			}
+			
+			public void failed(IOException e){
+				System.out.println(e);
+				Gdx.app.postRunnable(new Runnable(){
+					public void run(){
+						showMessage("Weather unavailable");
+					}
+				});
+			}
+		});
+		if (!cached)
+			showMessage("Loading weather...");
 	}
 	
 	/**
-	 * This method reads the API's JSON as a string to be used in readJSON to become a JSONObject.
-	 * @param rd (Reader) a reader that holds the character stream of the JSON from the API URL
-	 * @return a string of the API's JSON
-	 * @throws IOException
+	 * This method replaces col2's content with a message, e.g. while the weather is loading.
+	 * @param message (String) the message to show
 	 */
-	private String readAll(Reader rd) throws IOException {
-		// use String Builder instead of String for speed just in case if the JSON is super long
-		// Note: string concatenation creates a new StringBuilder every loop, making String the less optimal choice
-		StringBuilder sb = new StringBuilder();
-		int character;
-		
-		// read in one character at a time
-		while ((character = rd.read()) != -1) {
-		  sb.append((char) character);
-		}
-		
-		return sb.toString();
+	private void showMessage(String message){
+		Label label = new Label(message, new Label.LabelStyle(MainScreen.font, Color.valueOf("7D1E0B")));
+		col2.clear();
+		col2.padLeft(100);
+		col2.add(label);
 	}
-
+	
 	/**
-	 * This object extracts the needed info from the API's JSON to put into the table given to this class instance.
-	 * @param info (JSONObject) the API's JSON
+	 * This object puts the weather from the API into the table given to this class instance.
+	 * @param info (Weather) the weather read from the API's JSON
 	 */
-	private void addWeatherToTable(JSONObject info){		
-		// get all the string info from the JSONObject
-		city = info.getString("name");
+	private void addWeatherToTable(Weather info){		
+		// get all the strings to show
+		city = info.getCity();
 		
-		description = info.getJSONArray("weather").getJSONObject(0).getString("description");
+		description = info.getDescription();
 		description = description.substring(0,1).toUpperCase() + description.substring(1);
 		
-		Double kelvin = info.getJSONObject("main").getDouble("temp");
-		Double fahrenheit = (9.0/5.0)*(kelvin - 273) + 32;
-		temp = String.format("%.0f", fahrenheit);
-		windSpeed = Double.toString(info.getJSONObject("wind").getDouble("speed"));
+		temp = String.format("%.0f", info.getFahrenheit());
+		windSpeed = Double.toString(info.getWindSpeed());
 		String tempWind = temp + " degrees F, " + windSpeed + " mph wind";
 		
 		// create labels for all strings
@@ -128,10 +127,9 @@ public class APIButton extends PennyPopButtons{
 		Label cityLabel = new Label(city, new Label.LabelStyle(MainScreen.font, Color.valueOf("1160BA")));
 		Label descrptnLabel = new Label(description, new Label.LabelStyle(MainScreen.font, Color.RED));
 		
-		// make new smaller bitmap font for tempWind 
-		BitmapFont fontSmall = new BitmapFont(Gdx.files.internal("font.fnt"), Gdx.files.internal("font.png"), false);
-		fontSmall.setScale(0.6f);
-		Label tempWindLabel = new Label(tempWind, new Label.LabelStyle(fontSmall, Color.RED));
+		// scale the shared font down for tempWind instead of loading another one
+		Label tempWindLabel = new Label(tempWind, new Label.LabelStyle(MainScreen.font, Color.RED));
+		tempWindLabel.setFontScale(0.6f);
 		
 		// add all the labels to col2
 		col2.clear(); // reset to display updated weather info every time API button is clicked
@@ -2,7 +2,8 @@ package com.pennypop.project.buttons;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -23,11 +24,11 @@ public class MainButton extends PennyPopButtons{
 	/**
 	 * The constructor will initialize the Main Menu button with the given file image and add a click event
 	 * to the button.
-	 * @param image (FileHandle) the file of the button's image
+	 * @param image (AssetDescriptor) the button's image, loaded by the screen
 	 * @param gameScreen (Screen) the game screen to transition from
 	 * @param sb (SpriteBatch) the sprite batch of this application
 	 */
-	public MainButton(FileHandle image, Screen gameScreen, SpriteBatch sb){
+	public MainButton(AssetDescriptor<Texture> image, Screen gameScreen, SpriteBatch sb){
 		super(image);
 		this.gameScreen = gameScreen;
 		this.sb = sb;
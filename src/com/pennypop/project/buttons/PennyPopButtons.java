@@ -1,15 +1,17 @@
 package com.pennypop.project.buttons;
 
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.pennypop.project.Assets;
 
 /**
  * This is the base class for all the image buttons.
  * To use this class, simply extend PennyPopButtons and override the addClickEvent to 
  * give the button a specific event when clicked.
+ * The button's image is shared through Assets, the screen making the button must have loaded it.
  * 
  * @author Angie (Wai Ying Li)
  */
@@ -21,11 +23,11 @@ public abstract class PennyPopButtons {
 	
 	/**
 	 * The constructor to load the button's image.
-	 * @param file (FileHandle) the file path of the button's image
+	 * @param image (AssetDescriptor) the button's image, acquired and loaded by the screen
 	 */
-	public PennyPopButtons(FileHandle file){
+	public PennyPopButtons(AssetDescriptor<Texture> image){
 		// set up image for the buttons
-		buttonTexture = new Texture(file); 
+		buttonTexture = Assets.get(image);
 		buttonTextureReg = new TextureRegion(buttonTexture);
 		buttonDrawable = new TextureRegionDrawable(buttonTextureReg);
 		imgButton = new ImageButton(buttonDrawable);
@@ -1,11 +1,12 @@
 package com.pennypop.project.buttons;
 
-import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
+import com.pennypop.project.Assets;
 
 /**
  * This is a class for the sfx button in the Main Screen. Clicking this
@@ -13,13 +14,17 @@ import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
  * @author Angie (Wai Ying Li)
  */
 public class SfxButton extends PennyPopButtons{
+	private final Sound sfx; // shared through Assets, so clicking doesn't load it again
+	
 	/**
 	 * This is the constructor to create a sfx button using the given file image
 	 * and add a click event to the button.
-	 * @param file (FileHandle) the file of the button's image
+	 * @param image (AssetDescriptor) the button's image, loaded by the screen
+	 * @param sound (AssetDescriptor) the sound effect, loaded by the screen
 	 */
-	public SfxButton(FileHandle image){
+	public SfxButton(AssetDescriptor<Texture> image, AssetDescriptor<Sound> sound){
 		super(image);
+		sfx = Assets.get(sound);
 		addClickEvent(imgButton);
 	}
 
@@ -28,7 +33,6 @@ public class SfxButton extends PennyPopButtons{
 		InputListener listener = new InputListener(){
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button){
 				// play sfx when clicked
-				Sound sfx = Gdx.audio.newSound(Gdx.files.internal("button_click.wav"));
 				sfx.play(0.5f);
 				return true;
 			}
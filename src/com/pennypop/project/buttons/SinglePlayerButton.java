@@ -2,7 +2,8 @@ package com.pennypop.project.buttons;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -23,12 +24,12 @@ public class SinglePlayerButton extends PennyPopButtons{
 	/**
 	 * This is the constructor to create a single player button using the given file image
 	 * and add a click event to the button.
-	 * @param file (FileHandle) the file of the button's image
+	 * @param image (AssetDescriptor) the button's image, loaded by the screen
 	 * @param settingsScreen (Screen) the instance of the screen to transition from
 	 * @param sb (SpriteBatch) the sprite batch of this application
 	 */
-	public SinglePlayerButton(FileHandle file, Screen settingsScreen, SpriteBatch sb) {
-		super(file);
+	public SinglePlayerButton(AssetDescriptor<Texture> image, Screen settingsScreen, SpriteBatch sb) {
+		super(image);
 		this.settingsScreen = settingsScreen;
 		this.sb = sb;
 		addClickEvent(imgButton);